@@ -0,0 +1,73 @@
+package simulator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// overwrites random pages of files that were written sequentially, i.e., the lookup path of a file mapper
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileMapperBenchmark {
+    private static final int NUM_LPIDS = 1 << 22;
+    private static final int FILES = 1024;
+    private static final int FILE_PAGES = 2048;
+    // random (file, page) pairs are precomputed so that the benchmark does not measure Random
+    private static final int OPS = 1 << 16;
+
+    @org.openjdk.jmh.annotations.Param({ "hash", "flat", "extent" })
+    public String mapper;
+
+    private FileMapper fileMapper;
+    private final int[] files = new int[OPS];
+    private final int[] pages = new int[OPS];
+    private int op = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (mapper) {
+        case "hash":
+            fileMapper = new HashFileMapper(NUM_LPIDS);
+            break;
+        case "flat":
+            fileMapper = new FlatFileMapper(NUM_LPIDS);
+            break;
+        case "extent":
+            fileMapper = new ExtentFileMapper(NUM_LPIDS);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown file mapper " + mapper);
+        }
+        for (int file = 0; file < FILES; file++) {
+            for (int page = 0; page < FILE_PAGES; page++) {
+                fileMapper.write(file, page);
+            }
+        }
+        Random random = new Random(0);
+        for (int i = 0; i < OPS; i++) {
+            files[i] = random.nextInt(FILES);
+            pages[i] = random.nextInt(FILE_PAGES);
+        }
+    }
+
+    @Benchmark
+    public int write() {
+        op = (op + 1) & (OPS - 1);
+        return fileMapper.write(files[op], pages[op]);
+    }
+
+}
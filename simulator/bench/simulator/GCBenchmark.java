@@ -0,0 +1,90 @@
+package simulator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+// victim selection and relocation of a simulator in steady state. Each invocation first overwrites the pages of
+// ROUNDS GC batches, so that the collected blocks have invalid pages as in a simulation. The overwrites may run GC
+// themselves, but the device stays in steady state because GC frees what the writes consume. An invocation
+// collects ROUNDS batches, or ROUNDS * VICTIMS single blocks, so that it runs long enough for the per-invocation
+// setup not to skew its timing.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GCBenchmark {
+    private static final int ROUNDS = 64;
+    private static final int VICTIMS = 4;
+    // 1GB, 4GB and 16GB devices
+    @org.openjdk.jmh.annotations.Param({ "262144", "1048576", "4194304" })
+    public int pages;
+
+    // max-avail keeps victims in a heap while min-decline scans all blocks
+    @org.openjdk.jmh.annotations.Param({ "max-avail", "min-decline" })
+    public String scorer;
+
+    private GCSimulator sim;
+    private LpidGenerator gen;
+    private final IntArrayList lpids = new IntArrayList();
+    private final Block[] victims = new Block[ROUNDS * VICTIMS];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sim = SimulatorBenchmark.createLoaded(
+                SimulatorBenchmark.createParam(SimulatorBenchmark.createScoreComputer(scorer)), pages);
+        gen = sim.gen;
+    }
+
+    @Setup(Level.Invocation)
+    public void overwrite() {
+        for (int i = ROUNDS * sim.gcBatchBlocks * GCSimulator.BLOCK_SIZE; i > 0; i--) {
+            sim.write(gen.generate());
+        }
+        // any used blocks, starting from a moving position
+        int from = (int) (sim.currentTs % sim.totalBlocks);
+        int count = 0;
+        for (int i = 0; i < sim.totalBlocks && count < victims.length; i++) {
+            Block block = sim.blocks[(from + i) % sim.totalBlocks];
+            if (block.state == Block.State.Used) {
+                victims[count++] = block;
+            }
+        }
+        assert count == victims.length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public int runGC() {
+        int result = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            result += sim.runGC(0, sim.gcBatchBlocks);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS * VICTIMS)
+    public void gcBlock() {
+        for (Block victim : victims) {
+            lpids.clear();
+            sim.gcBlock(lpids, victim);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package simulator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulator.HotColdLpidGenerator.HotColdLpidGeneratorFactory;
+import simulator.UniformLpidGenerator.UniformLpidGeneratorFactory;
+import simulator.ZipfLpidGenerator.ZipfLpidGeneratorFactory;
+
+// lpid generation over the pages of a 100GB device at fill factor 0.8. sampled-zipf keeps 5% of the lpids of the
+// zipf generator as in GCExperiment
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LpidGeneratorBenchmark {
+    private static final double SAMPLE_RATE = 0.05;
+
+    @org.openjdk.jmh.annotations.Param({ "uniform", "zipf", "hot-cold", "sampled-zipf" })
+    public String generator;
+
+    private LpidGenerator gen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int maxLpid = (int) (SimulatorBenchmark.FILL_FACTOR * GCSimulator.TOTAL_PAGES);
+        switch (generator) {
+        case "uniform":
+            gen = new UniformLpidGeneratorFactory().create(maxLpid);
+            break;
+        case "zipf":
+            gen = new ZipfLpidGeneratorFactory(SimulatorBenchmark.SKEW).create(maxLpid);
+            break;
+        case "hot-cold":
+            gen = new HotColdLpidGeneratorFactory(80).create(maxLpid);
+            break;
+        case "sampled-zipf":
+            gen = new SampledLpidGenerator(new ZipfLpidGeneratorFactory(SimulatorBenchmark.SKEW).create(maxLpid),
+                    new SpatialSampler(SAMPLE_RATE));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown generator " + generator);
+        }
+    }
+
+    @Benchmark
+    public int generate() {
+        return gen.generate();
+    }
+
+}
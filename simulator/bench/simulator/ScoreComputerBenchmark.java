@@ -0,0 +1,58 @@
+package simulator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// scores all blocks of a loaded 4GB device, one block at a time and in batch
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreComputerBenchmark {
+    private static final int PAGES = 1048576;
+
+    @org.openjdk.jmh.annotations.Param({ "min-decline", "min-decline-opt", "berkeley", "max-avail", "oldest" })
+    public String scorer;
+
+    private GCSimulator sim;
+    private ScoreComputer scoreComputer;
+    private double[] scores;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        scoreComputer = SimulatorBenchmark.createScoreComputer(scorer);
+        sim = SimulatorBenchmark.createLoaded(SimulatorBenchmark.createParam(scoreComputer), PAGES);
+        scores = new double[sim.totalBlocks];
+    }
+
+    @Benchmark
+    public void compute(Blackhole bh) {
+        for (int i = 0; i < sim.totalBlocks; i++) {
+            Block block = sim.blocks[i];
+            if (block.state == Block.State.Used) {
+                bh.consume(scoreComputer.compute(sim, block));
+            }
+        }
+    }
+
+    @Benchmark
+    public double[] computeBatch() {
+        scoreComputer.computeBatch(sim, sim.blockArrays, 0, sim.totalBlocks, scores);
+        return scores;
+    }
+
+}
@@ -0,0 +1,92 @@
+package simulator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulator.ZipfLpidGenerator.ZipfLpidGeneratorFactory;
+
+// the write path of a simulator in steady state, i.e., loaded and then overwritten once with zipf writes.
+// Build with mvn -P bench package and run with java -jar target/benchmarks.jar
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulatorBenchmark {
+    static final double FILL_FACTOR = 0.8;
+    static final double SKEW = 0.99;
+    static final int BATCH_BLOCKS = 64;
+
+    // 1GB, 4GB and 16GB devices
+    @org.openjdk.jmh.annotations.Param({ "262144", "1048576", "4194304" })
+    public int pages;
+
+    @org.openjdk.jmh.annotations.Param({ "max-avail", "min-decline" })
+    public String scorer;
+
+    private GCSimulator sim;
+    private LpidGenerator gen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sim = createLoaded(createParam(createScoreComputer(scorer)), pages);
+        gen = sim.gen;
+    }
+
+    // includes the GC that the write triggers, as in a simulation
+    @Benchmark
+    public void writeLpidToBlock() {
+        sim.writeLpidToBlock(gen.generate(), sim.currentTs++);
+    }
+
+    static Param createParam(ScoreComputer scoreComputer) {
+        return new Param("bench", new ZipfLpidGeneratorFactory(SKEW), NoWriteBuffer.INSTANCE,
+                NoBlockSelector.INSTANCE, scoreComputer, null, BATCH_BLOCKS, false);
+    }
+
+    static ScoreComputer createScoreComputer(String name) {
+        switch (name) {
+        case "min-decline":
+            return new MinDecline();
+        case "min-decline-opt":
+            return new MinDeclineOpt();
+        case "berkeley":
+            return new Berkeley();
+        case "max-avail":
+            return new MaxAvail();
+        case "oldest":
+            return new Oldest();
+        default:
+            throw new IllegalArgumentException("Unknown score computer " + name);
+        }
+    }
+
+    // a simulator of the given size filled up to FILL_FACTOR and then overwritten once
+    static GCSimulator createLoaded(Param param, int pages) {
+        LpidGenerator gen = param.genFactory.create((int) (FILL_FACTOR * pages));
+        GCSimulator sim = param.createSimulator(gen, pages);
+        int[] lpids = new int[gen.maxLpid()];
+        for (int i = 0; i < lpids.length; i++) {
+            lpids[i] = i + 1;
+        }
+        sim.load(lpids);
+        for (int i = 0; i < pages; i++) {
+            sim.write(gen.generate());
+        }
+        sim.writeBuffer.flush(sim);
+        return sim;
+    }
+
+}
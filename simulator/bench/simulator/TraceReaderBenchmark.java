@@ -0,0 +1,98 @@
+package simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// decodes a generated trace file of random writes with occasional trims and deletes
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceReaderBenchmark {
+    private static final int OPS = 1 << 22;
+    private static final int FILES = 1024;
+    private static final int FILE_PAGES = 1 << 16;
+
+    private File file;
+    private TraceReader reader;
+    private final TraceOperation operation = new TraceOperation();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = File.createTempFile("bench", ".trace");
+        Random random = new Random(0);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < OPS; i++) {
+                int op = random.nextInt(100);
+                if (op < 98) {
+                    out.write(TraceReader.WRITE);
+                    writeInt(out, random.nextInt(FILES));
+                    writeInt(out, random.nextInt(FILE_PAGES));
+                } else if (op < 99) {
+                    out.write(TraceReader.TRIM);
+                    writeInt(out, random.nextInt(FILES));
+                    writeInt(out, random.nextInt(FILE_PAGES));
+                    writeInt(out, random.nextInt(256));
+                } else {
+                    out.write(TraceReader.DELETE);
+                    writeInt(out, random.nextInt(FILES));
+                }
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void open() throws Exception {
+        reader = new TraceReader(file.getPath());
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        file.delete();
+    }
+
+    @Benchmark
+    public int read() throws Exception {
+        if (!reader.read(operation)) {
+            // the reader closes itself at the end of the file
+            reader = new TraceReader(file.getPath());
+            reader.read(operation);
+        }
+        return operation.page;
+    }
+
+    // the variable-length encoding of VarLenDataInput.readInt
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+}
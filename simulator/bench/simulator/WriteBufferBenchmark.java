@@ -0,0 +1,59 @@
+package simulator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import simulator.ZipfLpidGenerator.ZipfLpidGeneratorFactory;
+
+// writes one buffer of pages through a sort buffer into a loaded 4GB device, so that each invocation buffers the
+// pages and then sorts and flushes them once. The lpids are generated in advance, and an invocation runs long
+// enough that no per-invocation setup is needed. The buffer starts empty and is full after every invocation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBufferBenchmark {
+    private static final int PAGES = 1048576;
+    // generated lpids, reused in turn
+    private static final int LPIDS = 1 << 20;
+
+    @org.openjdk.jmh.annotations.Param({ "4096", "65536" })
+    public int size;
+
+    private GCSimulator sim;
+    private final int[] lpids = new int[LPIDS];
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Param param = new Param("bench", new ZipfLpidGeneratorFactory(SimulatorBenchmark.SKEW),
+                new SortWriteBuffer(size), NoBlockSelector.INSTANCE, new MaxAvail(), null,
+                SimulatorBenchmark.BATCH_BLOCKS, false);
+        sim = SimulatorBenchmark.createLoaded(param, PAGES);
+        for (int i = 0; i < LPIDS; i++) {
+            lpids[i] = sim.gen.generate();
+        }
+    }
+
+    @Benchmark
+    public void writeBuffered() {
+        for (int i = 0; i < size; i++) {
+            sim.write(lpids[next]);
+            next = (next + 1) & (LPIDS - 1);
+        }
+    }
+
+}
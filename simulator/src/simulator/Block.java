@@ -1,12 +1,16 @@
 package simulator;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Queue;
 
 class Line {
     final int lineIndex;
 
     boolean multiLog;
+    // set once the line changed since its derivative was last computed, for global line selection
+    boolean dirty;
+    private final MultiLogSimulator sim;
     long ts;
     private int validLpids;
     private Queue<Block> blocks = new ArrayDeque<>();
@@ -14,6 +18,7 @@ class Line {
     public Line(GCSimulator sim, int lineIndex) {
         this.lineIndex = lineIndex;
         multiLog = sim instanceof MultiLogSimulator;
+        this.sim = multiLog && sim.param.globalLineSelection ? (MultiLogSimulator) sim : null;
     }
 
     public double validProb() {
@@ -21,7 +26,7 @@ class Line {
             return 0;
         } else {
             double alpha = ((double) blocks.size() * GCSimulator.BLOCK_SIZE - validLpids) / validLpids;
-            double prob = Math.pow(Math.E, -0.9 * alpha) / (1 + alpha);
+            double prob = Math.exp(-0.9 * alpha) / (1 + alpha);
             return prob;
         }
     }
@@ -30,6 +35,7 @@ class Line {
         blocks.add(block);
         validLpids += block.validLpids();
         assert validLpids >= 0 && numLpids() >= validLpids;
+        changed();
     }
 
     public Block poll() {
@@ -37,6 +43,7 @@ class Line {
         if (block != null) {
             validLpids -= block.validLpids();
             assert validLpids >= 0 && numLpids() >= validLpids;
+            changed();
         }
         return block;
     }
@@ -66,9 +73,21 @@ class Line {
     }
 
     public void invalidateLpid() {
+        invalidateLpids(1);
+    }
+
+    public void invalidateLpids(int count) {
         if (multiLog) {
-            validLpids--;
+            validLpids -= count;
             assert validLpids >= 0;
+            changed();
+        }
+    }
+
+    private void changed() {
+        if (sim != null && !dirty) {
+            dirty = true;
+            sim.lineChanged(this);
         }
     }
 
@@ -79,9 +98,48 @@ class Line {
 
 }
 
+// the block fields read by GC scoring, laid out as one primitive array per field so that a scan over all blocks
+// reads contiguous memory. Block writes its changes through to these arrays.
+class BlockArrays {
+    final int[] count;
+    final int[] avail;
+    final double[] priorTsSum;
+    final double[] updateFreqSum;
+    final long[] newestTs;
+    final long[] closedTs;
+    final boolean[] used;
+
+    public BlockArrays(int numBlocks) {
+        this.count = new int[numBlocks];
+        this.avail = new int[numBlocks];
+        this.priorTsSum = new double[numBlocks];
+        this.updateFreqSum = new double[numBlocks];
+        this.newestTs = new long[numBlocks];
+        this.closedTs = new long[numBlocks];
+        this.used = new boolean[numBlocks];
+    }
+
+    private BlockArrays(BlockArrays other) {
+        this.count = other.count.clone();
+        this.avail = other.avail.clone();
+        this.priorTsSum = other.priorTsSum.clone();
+        this.updateFreqSum = other.updateFreqSum.clone();
+        this.newestTs = other.newestTs.clone();
+        this.closedTs = other.closedTs.clone();
+        this.used = other.used.clone();
+    }
+
+    public BlockArrays copy() {
+        return new BlockArrays(this);
+    }
+}
+
 class Block {
     final int blockIndex;
-    final int lpids[];
+    private final BlockArrays arrays;
+    int lpids[];
+    // lpids is shared with a forked block and must be copied before it is written
+    private boolean sharedLpids = false;
     int count = 0;
     int avail = 0;
     long newestTs = 0;
@@ -91,6 +149,8 @@ class Block {
     long closedTs;
     double updateFreqSum = 0;
     int line;
+    // erases of this block over the lifetime of the simulator, which reset keeps
+    int eraseCount = 0;
 
     // used by GC
     double score = 0;
@@ -103,29 +163,112 @@ class Block {
 
     State state = State.Free;
 
-    public Block(int index, int size) {
+    public Block(int index, int size, BlockArrays arrays) {
+        this(index, new int[size], arrays);
+    }
+
+    private Block(int index, int[] lpids, BlockArrays arrays) {
         this.blockIndex = index;
-        this.lpids = new int[size];
+        this.lpids = lpids;
+        this.arrays = arrays;
+    }
+
+    // returns a copy of this block whose scoring fields are written to the given arrays. The lpid array is shared
+    // copy-on-write by both blocks.
+    public Block fork(BlockArrays arrays) {
+        Block block = new Block(blockIndex, lpids, arrays);
+        block.count = count;
+        block.avail = avail;
+        block.newestTs = newestTs;
+        block.writeTsSum = writeTsSum;
+        block.priorTsSum = priorTsSum;
+        block.lineTsSum = lineTsSum;
+        block.closedTs = closedTs;
+        block.updateFreqSum = updateFreqSum;
+        block.line = line;
+        block.eraseCount = eraseCount;
+        block.score = score;
+        block.state = state;
+        block.sharedLpids = true;
+        sharedLpids = true;
+        return block;
+    }
+
+    private void ownLpids() {
+        if (sharedLpids) {
+            lpids = lpids.clone();
+            sharedLpids = false;
+        }
+    }
+
+    // fills the rest of an open block with invalid pages so that it can be closed
+    public void seal() {
+        ownLpids();
+        Arrays.fill(lpids, count, lpids.length, -1);
+        avail += lpids.length - count;
+        count = lpids.length;
+        arrays.avail[blockIndex] = avail;
+        arrays.count[blockIndex] = count;
     }
 
     public void invalidate(long ts, int index, double updateFreq) {
         // mark it as invalid
+        ownLpids();
         assert (lpids[index] >= 0);
         lpids[index] = -1;
 
         updateFreqSum -= updateFreq;
         this.avail++;
+        arrays.updateFreqSum[blockIndex] = updateFreqSum;
+        arrays.avail[blockIndex] = avail;
+    }
+
+    // invalidates the pages of this block addressed by addrs[from, to)
+    public void invalidate(long ts, long[] addrs, int from, int to, LpidGenerator gen) {
+        double updateFreq = 0;
+        ownLpids();
+        for (int i = from; i < to; i++) {
+            int index = (int) addrs[i];
+            assert (lpids[index] >= 0);
+            updateFreq += gen.getProb(lpids[index]);
+            lpids[index] = -1;
+        }
+        updateFreqSum -= updateFreq;
+        this.avail += to - from;
+        arrays.updateFreqSum[blockIndex] = updateFreqSum;
+        arrays.avail[blockIndex] = avail;
     }
 
     public void add(int lpid, long ts, double lineTs, double priorTs, double updateFreq, long newestTs) {
         this.writeTsSum += ts;
         this.priorTsSum += priorTs;
         this.lineTsSum += lineTs;
+        ownLpids();
         this.lpids[count] = lpid;
         this.updateFreqSum += updateFreq;
         assert (this.updateFreqSum >= 0);
         this.newestTs = Math.max(this.newestTs, newestTs);
         count++;
+        arrays.priorTsSum[blockIndex] = priorTsSum;
+        arrays.updateFreqSum[blockIndex] = updateFreqSum;
+        arrays.newestTs[blockIndex] = this.newestTs;
+        arrays.count[blockIndex] = count;
+    }
+
+    public void close(long ts) {
+        state = State.Used;
+        closedTs = ts;
+        arrays.closedTs[blockIndex] = ts;
+        arrays.used[blockIndex] = true;
+    }
+
+    public void resetTimestamps() {
+        writeTsSum = 0;
+        priorTsSum = 0;
+        newestTs = 0;
+        lineTsSum = 0;
+        arrays.priorTsSum[blockIndex] = 0;
+        arrays.newestTs[blockIndex] = 0;
     }
 
     public void reset() {
@@ -139,6 +282,13 @@ class Block {
         state = State.Free;
         updateFreqSum = 0;
         line = -1;
+        arrays.count[blockIndex] = 0;
+        arrays.avail[blockIndex] = 0;
+        arrays.priorTsSum[blockIndex] = 0;
+        arrays.updateFreqSum[blockIndex] = 0;
+        arrays.newestTs[blockIndex] = 0;
+        arrays.closedTs[blockIndex] = 0;
+        arrays.used[blockIndex] = false;
     }
 
     public double updateFreq() {
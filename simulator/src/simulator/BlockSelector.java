@@ -22,6 +22,11 @@ interface BlockSelector {
 
     public String name();
 
+    // the name and every setting that changes the results, see Param.key
+    public default String key() {
+        return name();
+    }
+
     public BlockSelector clone();
 
     public double updateFreq(int line);
@@ -315,3 +320,221 @@ class HotColdBlockSelector implements BlockSelector {
         return 1;
     }
 }
+
+// writes each user page to the stream chosen by a multi-stream write buffer; GC keeps pages in their stream
+class StreamBlockSelector implements BlockSelector {
+    private final int streams;
+    private int stream = 0;
+
+    public StreamBlockSelector(int streams) {
+        this.streams = streams;
+    }
+
+    @Override
+    public void init(GCSimulator sim) {
+        for (int i = 0; i < streams; i++) {
+            sim.addLine();
+        }
+    }
+
+    @Override
+    public int selectUser(GCSimulator sim, int lpid, Block block) {
+        return stream;
+    }
+
+    @Override
+    public int selectGC(GCSimulator sim, IntArrayList lpids, Block block) {
+        return block.line;
+    }
+
+    public void setStream(int stream) {
+        assert stream >= 0 && stream < streams;
+        this.stream = stream;
+    }
+
+    public int streams() {
+        return streams;
+    }
+
+    @Override
+    public StreamBlockSelector clone() {
+        return new StreamBlockSelector(streams);
+    }
+
+    @Override
+    public double updateFreq(int line) {
+        return 0;
+    }
+
+    @Override
+    public String name() {
+        return "streams-" + streams;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+}
+
+// learns the write temperature of each lpid online with saturating byte counters that are halved every
+// decay epoch, and separates lpids into lines by the log2 of their counters. It needs one byte per lpid,
+// i.e., 1/8 of the mapping table.
+class DecayBlockSelector implements BlockSelector {
+    private static final int MAX_COUNT = 255;
+    private static final int CLASSES = 9;
+
+    private final int numLines;
+    private final double epochRatio;
+
+    private byte[] counters;
+    private long epochWrites;
+    private long writes;
+    private boolean initialized = false;
+
+    public DecayBlockSelector(int numLines, double epochRatio) {
+        Preconditions.checkArgument(numLines >= 1 && numLines <= CLASSES);
+        this.numLines = numLines;
+        this.epochRatio = epochRatio;
+    }
+
+    @Override
+    public void init(GCSimulator sim) {
+        if (initialized) {
+            return;
+        }
+        counters = new byte[sim.gen.maxLpid() + 1];
+        epochWrites = Math.max(1, (long) (sim.gen.maxLpid() * epochRatio));
+        for (int i = 0; i < numLines; i++) {
+            sim.addLine();
+        }
+        initialized = true;
+    }
+
+    @Override
+    public int selectUser(GCSimulator sim, int lpid, Block block) {
+        int count = counters[lpid] & 0xFF;
+        if (count < MAX_COUNT) {
+            counters[lpid] = (byte) (count + 1);
+        }
+        if (++writes % epochWrites == 0) {
+            decay();
+        }
+        return getLine(lpid);
+    }
+
+    @Override
+    public int selectGC(GCSimulator sim, IntArrayList lpids, Block block) {
+        assert lpids.size() == 1;
+        return getLine(lpids.getInt(0));
+    }
+
+    private int getLine(int lpid) {
+        // 0 for cold lpids up to 8 for saturated counters
+        int temperature = 32 - Integer.numberOfLeadingZeros(counters[lpid] & 0xFF);
+        return numLines - 1 - temperature * numLines / CLASSES;
+    }
+
+    private void decay() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (byte) ((counters[i] & 0xFF) >>> 1);
+        }
+    }
+
+    @Override
+    public DecayBlockSelector clone() {
+        return new DecayBlockSelector(numLines, epochRatio);
+    }
+
+    @Override
+    public double updateFreq(int line) {
+        // a counter converges to twice the writes per epoch, and a line covers a range of log2 counters
+        int temperature = (numLines - 1 - line) * CLASSES / numLines;
+        double count = temperature == 0 ? 0.5 : 1.5 * (1 << (temperature - 1));
+        return count / 2 / epochWrites;
+    }
+
+    @Override
+    public String name() {
+        return "decay-" + numLines;
+    }
+
+    @Override
+    public String key() {
+        return name() + "-" + epochRatio;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 1;
+    }
+}
+
+// places pages into lines by their remaining lifetime as predicted by a trace oracle, which gives a lower bound
+// of the write amplification for a trace. Line i holds pages dying within about 2^i blocks of writes and the last
+// line holds pages that live beyond the lookahead window.
+class OracleBlockSelector implements BlockSelector {
+    private final int numLines;
+    private TraceOracle oracle;
+    private boolean initialized = false;
+
+    public OracleBlockSelector(int numLines) {
+        Preconditions.checkArgument(numLines >= 2);
+        this.numLines = numLines;
+    }
+
+    public void setOracle(TraceOracle oracle) {
+        this.oracle = oracle;
+    }
+
+    @Override
+    public void init(GCSimulator sim) {
+        if (initialized) {
+            return;
+        }
+        for (int i = 0; i < numLines; i++) {
+            sim.addLine();
+        }
+        initialized = true;
+    }
+
+    @Override
+    public int selectUser(GCSimulator sim, int lpid, Block block) {
+        return getLine(lpid);
+    }
+
+    @Override
+    public int selectGC(GCSimulator sim, IntArrayList lpids, Block block) {
+        assert lpids.size() == 1;
+        return getLine(lpids.getInt(0));
+    }
+
+    private int getLine(int lpid) {
+        long remaining = oracle.remaining(lpid);
+        if (remaining == Long.MAX_VALUE) {
+            return numLines - 1;
+        }
+        int line = 64 - Long.numberOfLeadingZeros(remaining / GCSimulator.BLOCK_SIZE);
+        return Math.min(line, numLines - 2);
+    }
+
+    @Override
+    public OracleBlockSelector clone() {
+        return new OracleBlockSelector(numLines);
+    }
+
+    @Override
+    public double updateFreq(int line) {
+        return line == numLines - 1 ? 0 : 1.0 / GCSimulator.BLOCK_SIZE / (1L << line);
+    }
+
+    @Override
+    public String name() {
+        return "oracle-" + numLines;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 1;
+    }
+}
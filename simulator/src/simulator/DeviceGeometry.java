@@ -0,0 +1,41 @@
+package simulator;
+
+import com.google.common.base.Preconditions;
+
+// channels and dies of a device. Blocks are interleaved over the dies, and consecutive dies are on different
+// channels, so that striping over dies also stripes over channels
+public class DeviceGeometry {
+    public static final DeviceGeometry SINGLE_DIE = new DeviceGeometry(1, 1);
+
+    public final int channels;
+    public final int diesPerChannel;
+    public final int dies;
+
+    public DeviceGeometry(int channels, int diesPerChannel) {
+        Preconditions.checkArgument(channels > 0 && diesPerChannel > 0);
+        this.channels = channels;
+        this.diesPerChannel = diesPerChannel;
+        this.dies = channels * diesPerChannel;
+    }
+
+    // <channels>x<dies per channel>, e.g., 8x4
+    public static DeviceGeometry parse(String value) {
+        String[] parts = value.trim().split("x");
+        Preconditions.checkArgument(parts.length == 2, "Invalid geometry %s", value);
+        return new DeviceGeometry(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    public int die(int blockIndex) {
+        return blockIndex % dies;
+    }
+
+    public int channel(int die) {
+        return die % channels;
+    }
+
+    @Override
+    public String toString() {
+        return channels + "x" + diesPerChannel;
+    }
+
+}
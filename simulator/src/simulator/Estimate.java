@@ -0,0 +1,55 @@
+package simulator;
+
+import org.apache.commons.math3.distribution.TDistribution;
+
+// mean and the half width of a Student-t confidence interval
+public class Estimate {
+    public static final double DEFAULT_CONFIDENCE = 0.95;
+
+    final int samples;
+    final double mean;
+    final double halfWidth;
+
+    public Estimate(int samples, double mean, double halfWidth) {
+        this.samples = samples;
+        this.mean = mean;
+        this.halfWidth = halfWidth;
+    }
+
+    public static Estimate of(double[] values, int from, int to) {
+        return of(values, from, to, DEFAULT_CONFIDENCE);
+    }
+
+    public static Estimate of(double[] values, int from, int to, double confidence) {
+        int n = to - from;
+        if (n <= 0) {
+            return new Estimate(0, Double.NaN, Double.NaN);
+        }
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        double mean = sum / n;
+        if (n == 1) {
+            return new Estimate(1, mean, Double.POSITIVE_INFINITY);
+        }
+        double sqSum = 0;
+        for (int i = from; i < to; i++) {
+            double d = values[i] - mean;
+            sqSum += d * d;
+        }
+        double stdErr = Math.sqrt(sqSum / (n - 1) / n);
+        double t = new TDistribution(n - 1).inverseCumulativeProbability(1 - (1 - confidence) / 2);
+        return new Estimate(n, mean, t * stdErr);
+    }
+
+    public double relativeHalfWidth() {
+        return halfWidth / Math.abs(mean);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3f+-%.3f", mean, halfWidth);
+    }
+
+}
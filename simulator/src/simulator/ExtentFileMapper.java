@@ -0,0 +1,233 @@
+package simulator;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2IntRBTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2IntSortedMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongRBTreeMap;
+import it.unimi.dsi.fastutil.longs.Long2LongSortedMap;
+import it.unimi.dsi.fastutil.longs.LongRBTreeSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+// maps sequential file regions to contiguous lpid ranges, i.e., (file, start page) -> (start lpid, length).
+// A new extent is placed in the middle of the largest free lpid range so that it has room to grow, and
+// an extent grows in place as long as the lpid following it is free.
+public class ExtentFileMapper implements FileMapper {
+
+    private final int numLpids;
+
+    // (file, start page) -> (start lpid, length)
+    private final Long2LongRBTreeMap extents = new Long2LongRBTreeMap();
+    // file id -> number of extents
+    private final Int2IntOpenHashMap fileExtents = new Int2IntOpenHashMap();
+
+    // free lpid ranges: start -> length, and (length, start) ordered by length
+    private final Int2IntRBTreeMap freeRanges = new Int2IntRBTreeMap();
+    private final LongRBTreeSet freeBySize = new LongRBTreeSet();
+    private int freeLpids;
+
+    public ExtentFileMapper(int numLpids) {
+        this.numLpids = numLpids;
+        this.freeRanges.defaultReturnValue(0);
+        addFree(1, numLpids - 1);
+    }
+
+    @Override
+    public int write(int file, int page) {
+        long key = key(file, page);
+        Long2LongSortedMap head = extents.headMap(key + 1);
+        if (!head.isEmpty()) {
+            long floorKey = head.lastLongKey();
+            if (file(floorKey) == file) {
+                long extent = extents.get(floorKey);
+                int offset = page - page(floorKey);
+                if (offset < length(extent)) {
+                    return startLpid(extent) + offset;
+                }
+                int endLpid = startLpid(extent) + length(extent);
+                if (offset == length(extent) && freeRanges.get(endLpid) > 0) {
+                    // append to the extent
+                    takeFree(endLpid, 1);
+                    extents.put(floorKey, extent(startLpid(extent), length(extent) + 1));
+                    return endLpid;
+                }
+            }
+        }
+        int lpid = allocate();
+        extents.put(key, extent(lpid, 1));
+        fileExtents.addTo(file, 1);
+        return lpid;
+    }
+
+    @Override
+    public void delete(int file, IntArrayList lpids) {
+        if (fileExtents.remove(file) == fileExtents.defaultReturnValue()) {
+            return;
+        }
+        ObjectIterator<Long2LongMap.Entry> it =
+                extents.subMap(key(file, 0), key(file + 1, 0)).long2LongEntrySet().iterator();
+        while (it.hasNext()) {
+            long extent = it.next().getLongValue();
+            release(startLpid(extent), length(extent), lpids);
+            it.remove();
+        }
+    }
+
+    @Override
+    public void trim(int file, int page, int length, IntArrayList lpids) {
+        if (!fileExtents.containsKey(file)) {
+            return;
+        }
+        int end = page + length;
+        int removed = 0;
+        // the extent starting before the range keeps its head
+        Long2LongSortedMap head = extents.headMap(key(file, page));
+        if (!head.isEmpty() && file(head.lastLongKey()) == file) {
+            long floorKey = head.lastLongKey();
+            long extent = extents.get(floorKey);
+            int startPage = page(floorKey);
+            int endPage = startPage + length(extent);
+            if (endPage > page) {
+                int startLpid = startLpid(extent);
+                extents.put(floorKey, extent(startLpid, page - startPage));
+                release(startLpid + page - startPage, Math.min(endPage, end) - page, lpids);
+                if (endPage > end) {
+                    extents.put(key(file, end), extent(startLpid + end - startPage, endPage - end));
+                    fileExtents.addTo(file, 1);
+                }
+            }
+        }
+        // extents starting within the range keep their tails
+        long tailKey = -1;
+        long tailExtent = -1;
+        ObjectIterator<Long2LongMap.Entry> it =
+                extents.subMap(key(file, page), key(file, end)).long2LongEntrySet().iterator();
+        while (it.hasNext()) {
+            Long2LongMap.Entry entry = it.next();
+            long extent = entry.getLongValue();
+            int startPage = page(entry.getLongKey());
+            int endPage = startPage + length(extent);
+            release(startLpid(extent), Math.min(endPage, end) - startPage, lpids);
+            if (endPage > end) {
+                tailKey = key(file, end);
+                tailExtent = extent(startLpid(extent) + end - startPage, endPage - end);
+            }
+            it.remove();
+            removed++;
+        }
+        if (tailKey >= 0) {
+            extents.put(tailKey, tailExtent);
+            removed--;
+        }
+        if (fileExtents.addTo(file, -removed) == removed) {
+            fileExtents.remove(file);
+        }
+    }
+
+    @Override
+    public int getFiles() {
+        return fileExtents.size();
+    }
+
+    @Override
+    public int getUsedLpids() {
+        return numLpids - freeLpids;
+    }
+
+    public int getExtents() {
+        return extents.size();
+    }
+
+    private void release(int startLpid, int length, IntArrayList lpids) {
+        for (int i = 0; i < length; i++) {
+            lpids.add(startLpid + i);
+        }
+        releaseFree(startLpid, length);
+    }
+
+    private int allocate() {
+        if (freeBySize.isEmpty()) {
+            throw new IllegalStateException("No free lpid");
+        }
+        long largest = freeBySize.lastLong();
+        int start = (int) largest;
+        int length = (int) (largest >>> 32);
+        // leave the upper half as room for the new extent to grow
+        int lpid = start + (length - 1) / 2;
+        takeFree(lpid, 1);
+        return lpid;
+    }
+
+    // takes [lpid, lpid + length) out of the free range containing it
+    private void takeFree(int lpid, int length) {
+        Int2IntSortedMap head = freeRanges.headMap(lpid + 1);
+        int start = head.lastIntKey();
+        int freeLength = freeRanges.get(start);
+        assert start <= lpid && lpid + length <= start + freeLength;
+        removeFree(start, freeLength);
+        if (lpid > start) {
+            addFree(start, lpid - start);
+        }
+        if (lpid + length < start + freeLength) {
+            addFree(lpid + length, start + freeLength - lpid - length);
+        }
+    }
+
+    // returns [start, start + length) to the free ranges and coalesces it with its neighbors
+    private void releaseFree(int start, int length) {
+        int nextLength = freeRanges.get(start + length);
+        if (nextLength > 0) {
+            removeFree(start + length, nextLength);
+            length += nextLength;
+        }
+        Int2IntSortedMap head = freeRanges.headMap(start);
+        if (!head.isEmpty()) {
+            int prevStart = head.lastIntKey();
+            int prevLength = freeRanges.get(prevStart);
+            if (prevStart + prevLength == start) {
+                removeFree(prevStart, prevLength);
+                start = prevStart;
+                length += prevLength;
+            }
+        }
+        addFree(start, length);
+    }
+
+    private void addFree(int start, int length) {
+        freeRanges.put(start, length);
+        freeBySize.add(((long) length << 32) | start);
+        freeLpids += length;
+    }
+
+    private void removeFree(int start, int length) {
+        freeRanges.remove(start);
+        freeBySize.remove(((long) length << 32) | start);
+        freeLpids -= length;
+    }
+
+    private static long key(int file, int page) {
+        return ((long) file << 32) | (page & 0xFFFFFFFFL);
+    }
+
+    private static int file(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int page(long key) {
+        return (int) key;
+    }
+
+    private static long extent(int startLpid, int length) {
+        return ((long) startLpid << 32) | length;
+    }
+
+    private static int startLpid(long extent) {
+        return (int) (extent >>> 32);
+    }
+
+    private static int length(long extent) {
+        return (int) extent;
+    }
+
+}
@@ -24,20 +24,32 @@ import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 
-public class FileMapper {
+public interface FileMapper {
+    public int write(int file, int page);
+
+    // releases all pages of the file and appends their lpids to lpids
+    public void delete(int file, IntArrayList lpids);
+
+    // releases pages [page, page + length) of the file and appends their lpids to lpids
+    public void trim(int file, int page, int length, IntArrayList lpids);
+
+    public int getFiles();
+
+    public int getUsedLpids();
+}
+
+class HashFileMapper implements FileMapper {
 
     private final IntArrayFIFOQueue lpidQueue;
     private final int numLpids;
 
-    private final GCSimulator sim;
-
     // file id -> (page id -> lpid)
     private final Int2ObjectMap<Int2IntMap> fileMap = new Int2ObjectOpenHashMap<>();
 
-    public FileMapper(int numLpids, GCSimulator sim) {
-        this.sim = sim;
+    public HashFileMapper(int numLpids) {
         this.numLpids = numLpids;
         this.lpidQueue = new IntArrayFIFOQueue(numLpids);
         for (int i = 1; i < numLpids; i++) {
@@ -45,6 +57,7 @@ public class FileMapper {
         }
     }
 
+    @Override
     public int write(int file, int page) {
         Int2IntMap pageMap = fileMap.computeIfAbsent(file, k -> new Int2IntOpenHashMap());
         int lpid = pageMap.getOrDefault(page, -1);
@@ -55,7 +68,8 @@ public class FileMapper {
         return lpid;
     }
 
-    public void delete(int file) {
+    @Override
+    public void delete(int file, IntArrayList lpids) {
         Int2IntMap pageMap = fileMap.remove(file);
         if (pageMap == null) {
             return;
@@ -65,14 +79,47 @@ public class FileMapper {
         while (it.hasNext()) {
             int lpid = it.next().getIntValue();
             lpidQueue.enqueue(lpid);
-            sim.delete(lpid);
+            lpids.add(lpid);
+        }
+    }
+
+    @Override
+    public void trim(int file, int page, int length, IntArrayList lpids) {
+        Int2IntMap pageMap = fileMap.get(file);
+        if (pageMap == null) {
+            return;
+        }
+        if (length < pageMap.size()) {
+            for (int i = page; i < page + length; i++) {
+                // lpids start from 1
+                int lpid = pageMap.remove(i);
+                if (lpid > 0) {
+                    lpidQueue.enqueue(lpid);
+                    lpids.add(lpid);
+                }
+            }
+        } else {
+            ObjectIterator<Int2IntMap.Entry> it = ((FastEntrySet) pageMap.int2IntEntrySet()).fastIterator();
+            while (it.hasNext()) {
+                Int2IntMap.Entry entry = it.next();
+                if (entry.getIntKey() >= page && entry.getIntKey() < page + length) {
+                    lpidQueue.enqueue(entry.getIntValue());
+                    lpids.add(entry.getIntValue());
+                    it.remove();
+                }
+            }
+        }
+        if (pageMap.isEmpty()) {
+            fileMap.remove(file);
         }
     }
 
+    @Override
     public int getFiles() {
         return fileMap.size();
     }
 
+    @Override
     public int getUsedLpids() {
         return numLpids - lpidQueue.size();
     }
@@ -0,0 +1,291 @@
+package simulator;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+// maps (file, page) -> lpid with a single open-addressing table over primitive arrays.
+// The table grows incrementally: a resize allocates the new table and later operations migrate a few slots
+// of the old table each, so there is never a full rehash pause. Entries of the same file are chained
+// in a doubly linked list so that a file can be deleted or trimmed without scanning the table.
+public class FlatFileMapper implements FileMapper {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final double MAX_LOAD = 0.5;
+    private static final int MIGRATE_SLOTS = 16;
+    // longer trims walk the file chain instead of probing every page
+    private static final int TRIM_PROBE_PAGES = 64;
+
+    // table slots store entry + 1
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final int NULL = -1;
+
+    private final IntArrayFIFOQueue lpidQueue;
+    private final int numLpids;
+
+    // entries are allocated in fixed-size chunks so that growing never copies them
+    private long[][] keys = new long[0][];
+    private int[][] values = new int[0][];
+    // next entry of the same file, or next free entry
+    private int[][] nexts = new int[0][];
+    // previous entry of the same file
+    private int[][] prevs = new int[0][];
+    private int numEntries = 0;
+    private int freeEntry = NULL;
+
+    private int[] table = new int[MIN_CAPACITY];
+    private int occupied = 0;
+    private int size = 0;
+
+    // the table being migrated, if any
+    private int[] oldTable;
+    private int migrated;
+
+    // file id -> first entry of the file
+    private final Int2IntOpenHashMap fileHeads = new Int2IntOpenHashMap();
+
+    public FlatFileMapper(int numLpids) {
+        this.numLpids = numLpids;
+        this.lpidQueue = new IntArrayFIFOQueue(numLpids);
+        for (int i = 1; i < numLpids; i++) {
+            this.lpidQueue.enqueue(i);
+        }
+        this.fileHeads.defaultReturnValue(NULL);
+    }
+
+    @Override
+    public int write(int file, int page) {
+        migrate(MIGRATE_SLOTS);
+        long key = key(file, page);
+        int entry = find(key);
+        if (entry != NULL) {
+            return lpid(entry);
+        }
+        int lpid = lpidQueue.dequeueInt();
+        entry = allocate(key, lpid);
+        int head = fileHeads.put(file, entry);
+        setNext(entry, head);
+        setPrev(entry, NULL);
+        if (head != NULL) {
+            setPrev(head, entry);
+        }
+        insert(entry);
+        size++;
+        if (occupied > table.length * MAX_LOAD) {
+            resize();
+        }
+        return lpid;
+    }
+
+    @Override
+    public void delete(int file, IntArrayList lpids) {
+        int entry = fileHeads.remove(file);
+        while (entry != NULL) {
+            int next = next(entry);
+            release(entry, lpids);
+            entry = next;
+        }
+    }
+
+    @Override
+    public void trim(int file, int page, int length, IntArrayList lpids) {
+        int head = fileHeads.get(file);
+        if (head == NULL) {
+            return;
+        }
+        if (length <= TRIM_PROBE_PAGES) {
+            for (int i = page; i < page + length; i++) {
+                int entry = find(key(file, i));
+                if (entry != NULL) {
+                    unlink(file, entry);
+                    release(entry, lpids);
+                }
+            }
+        } else {
+            int entry = head;
+            while (entry != NULL) {
+                int next = next(entry);
+                int entryPage = (int) keys[entry >>> CHUNK_BITS][entry & CHUNK_MASK];
+                if (entryPage >= page && entryPage < page + length) {
+                    unlink(file, entry);
+                    release(entry, lpids);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    @Override
+    public int getFiles() {
+        return fileHeads.size();
+    }
+
+    @Override
+    public int getUsedLpids() {
+        return numLpids - lpidQueue.size();
+    }
+
+    private void unlink(int file, int entry) {
+        int prev = prev(entry);
+        int next = next(entry);
+        if (prev != NULL) {
+            setNext(prev, next);
+        } else if (next != NULL) {
+            fileHeads.put(file, next);
+        } else {
+            fileHeads.remove(file);
+        }
+        if (next != NULL) {
+            setPrev(next, prev);
+        }
+    }
+
+    // removes the entry from the table and frees its lpid and slot
+    private void release(int entry, IntArrayList lpids) {
+        long key = keys[entry >>> CHUNK_BITS][entry & CHUNK_MASK];
+        remove(table, key);
+        if (oldTable != null) {
+            remove(oldTable, key);
+        }
+        size--;
+
+        int lpid = lpid(entry);
+        lpidQueue.enqueue(lpid);
+        lpids.add(lpid);
+
+        setNext(entry, freeEntry);
+        freeEntry = entry;
+    }
+
+    private int find(long key) {
+        int entry = find(table, key);
+        if (entry == NULL && oldTable != null) {
+            entry = find(oldTable, key);
+        }
+        return entry;
+    }
+
+    private int find(int[] table, long key) {
+        int mask = table.length - 1;
+        int pos = (int) HashCommon.mix(key) & mask;
+        int slot;
+        while ((slot = table[pos]) != EMPTY) {
+            if (slot != DELETED && keys[(slot - 1) >>> CHUNK_BITS][(slot - 1) & CHUNK_MASK] == key) {
+                return slot - 1;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return NULL;
+    }
+
+    private void remove(int[] table, long key) {
+        int mask = table.length - 1;
+        int pos = (int) HashCommon.mix(key) & mask;
+        int slot;
+        while ((slot = table[pos]) != EMPTY) {
+            if (slot != DELETED && keys[(slot - 1) >>> CHUNK_BITS][(slot - 1) & CHUNK_MASK] == key) {
+                table[pos] = DELETED;
+                return;
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    private void insert(int entry) {
+        int mask = table.length - 1;
+        int pos = (int) HashCommon.mix(keys[entry >>> CHUNK_BITS][entry & CHUNK_MASK]) & mask;
+        while (table[pos] > EMPTY) {
+            pos = (pos + 1) & mask;
+        }
+        if (table[pos] == EMPTY) {
+            occupied++;
+        }
+        table[pos] = entry + 1;
+    }
+
+    private void resize() {
+        // a pending migration must complete before the table is replaced again
+        migrate(Integer.MAX_VALUE);
+        int capacity = MIN_CAPACITY;
+        while (size > capacity * MAX_LOAD / 2) {
+            capacity <<= 1;
+        }
+        oldTable = table;
+        migrated = 0;
+        table = new int[capacity];
+        occupied = 0;
+    }
+
+    private void migrate(int slots) {
+        if (oldTable == null) {
+            return;
+        }
+        int end = (int) Math.min(oldTable.length, (long) migrated + slots);
+        for (int i = migrated; i < end; i++) {
+            int slot = oldTable[i];
+            if (slot > EMPTY) {
+                insert(slot - 1);
+            }
+        }
+        migrated = end;
+        if (migrated == oldTable.length) {
+            oldTable = null;
+        }
+    }
+
+    private int allocate(long key, int lpid) {
+        int entry;
+        if (freeEntry != NULL) {
+            entry = freeEntry;
+            freeEntry = next(entry);
+        } else {
+            entry = numEntries++;
+            int chunk = entry >>> CHUNK_BITS;
+            if (chunk == keys.length) {
+                keys = Arrays.copyOf(keys, chunk + 1);
+                values = Arrays.copyOf(values, chunk + 1);
+                nexts = Arrays.copyOf(nexts, chunk + 1);
+                prevs = Arrays.copyOf(prevs, chunk + 1);
+                keys[chunk] = new long[CHUNK_SIZE];
+                values[chunk] = new int[CHUNK_SIZE];
+                nexts[chunk] = new int[CHUNK_SIZE];
+                prevs[chunk] = new int[CHUNK_SIZE];
+            }
+        }
+        keys[entry >>> CHUNK_BITS][entry & CHUNK_MASK] = key;
+        values[entry >>> CHUNK_BITS][entry & CHUNK_MASK] = lpid;
+        return entry;
+    }
+
+    private int lpid(int entry) {
+        return values[entry >>> CHUNK_BITS][entry & CHUNK_MASK];
+    }
+
+    private int next(int entry) {
+        return nexts[entry >>> CHUNK_BITS][entry & CHUNK_MASK];
+    }
+
+    private void setNext(int entry, int next) {
+        nexts[entry >>> CHUNK_BITS][entry & CHUNK_MASK] = next;
+    }
+
+    private int prev(int entry) {
+        return prevs[entry >>> CHUNK_BITS][entry & CHUNK_MASK];
+    }
+
+    private void setPrev(int entry, int prev) {
+        prevs[entry >>> CHUNK_BITS][entry & CHUNK_MASK] = prev;
+    }
+
+    private static long key(int file, int page) {
+        return ((long) file << 32) | (page & 0xFFFFFFFFL);
+    }
+
+}
@@ -0,0 +1,157 @@
+package simulator;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// free blocks of a simulator. Blocks freed by GC are added at the end and blocks released unused at the front
+public interface FreeBlockPool {
+    public int size();
+
+    public void add(Block block);
+
+    public void addFirst(Block block);
+
+    // hot blocks are opened for user writes and the others for pages moved by GC, which are colder
+    public Block poll(boolean hot);
+
+    // a block on the given die if there is one, or else on any die
+    public default Block poll(boolean hot, int die) {
+        return poll(hot);
+    }
+
+    // visits the free blocks, e.g., to add them to the pool of a forked simulator, which may be of another kind.
+    // FIFO pools visit them in the order in which they are polled
+    public void forEach(Consumer<Block> action);
+}
+
+// reuses free blocks in FIFO order
+class FifoFreeBlockPool implements FreeBlockPool {
+    private final Deque<Block> blocks = new ArrayDeque<>();
+
+    @Override
+    public int size() {
+        return blocks.size();
+    }
+
+    @Override
+    public void add(Block block) {
+        blocks.addLast(block);
+    }
+
+    @Override
+    public void addFirst(Block block) {
+        blocks.addFirst(block);
+    }
+
+    @Override
+    public Block poll(boolean hot) {
+        return blocks.pollFirst();
+    }
+
+    @Override
+    public void forEach(Consumer<Block> action) {
+        blocks.forEach(action);
+    }
+}
+
+// orders the free blocks by erase count and gives the least-worn blocks to hot data and the most-worn to cold
+// data, which rests them until its pages are invalidated. Blocks released unused keep their position
+class WearAwareFreeBlockPool implements FreeBlockPool {
+    private static final Comparator<Block> BY_ERASE_COUNT =
+            Comparator.<Block> comparingInt(b -> b.eraseCount).thenComparingInt(b -> b.blockIndex);
+
+    private final TreeSet<Block> blocks = new TreeSet<>(BY_ERASE_COUNT);
+
+    @Override
+    public int size() {
+        return blocks.size();
+    }
+
+    @Override
+    public void add(Block block) {
+        blocks.add(block);
+    }
+
+    @Override
+    public void addFirst(Block block) {
+        blocks.add(block);
+    }
+
+    @Override
+    public Block poll(boolean hot) {
+        return hot ? blocks.pollFirst() : blocks.pollLast();
+    }
+
+    @Override
+    public void forEach(Consumer<Block> action) {
+        blocks.forEach(action);
+    }
+}
+
+// keeps the free blocks of each die in a pool of its own, so that the open blocks of a line can be taken from
+// every die, see GCSimulator.userBlocks. Blocks requested from any die are taken from the dies in turn
+class StripedFreeBlockPool implements FreeBlockPool {
+    private final DeviceGeometry geometry;
+    private final FreeBlockPool[] dies;
+    private int size = 0;
+    private int nextDie = 0;
+
+    public StripedFreeBlockPool(DeviceGeometry geometry, Supplier<FreeBlockPool> diePool) {
+        this.geometry = geometry;
+        this.dies = new FreeBlockPool[geometry.dies];
+        for (int i = 0; i < dies.length; i++) {
+            dies[i] = diePool.get();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(Block block) {
+        dies[geometry.die(block.blockIndex)].add(block);
+        size++;
+    }
+
+    @Override
+    public void addFirst(Block block) {
+        dies[geometry.die(block.blockIndex)].addFirst(block);
+        size++;
+    }
+
+    @Override
+    public Block poll(boolean hot) {
+        if (size == 0) {
+            return null;
+        }
+        while (dies[nextDie].size() == 0) {
+            nextDie = (nextDie + 1) % dies.length;
+        }
+        Block block = dies[nextDie].poll(hot);
+        nextDie = (nextDie + 1) % dies.length;
+        size--;
+        return block;
+    }
+
+    @Override
+    public Block poll(boolean hot, int die) {
+        if (dies[die].size() == 0) {
+            return poll(hot);
+        }
+        size--;
+        return dies[die].poll(hot);
+    }
+
+    @Override
+    public void forEach(Consumer<Block> action) {
+        for (FreeBlockPool die : dies) {
+            die.forEach(action);
+        }
+    }
+}
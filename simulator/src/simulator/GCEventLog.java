@@ -0,0 +1,177 @@
+package simulator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.base.Throwables;
+
+// a binary log of every block collected by GC. The simulator stores fixed-size records into a preallocated ring
+// and a background thread drains the ring into a memory-mapped file. The simulator is the only producer and the
+// writer the only consumer, so each side owns one counter and publishes it with lazySet. The simulator only blocks
+// when the writer falls a full ring behind, so that no event is dropped.
+//
+// The file is a header (magic, version, record bytes) followed by big-endian records of
+// ts, age, batch, block << 32 | line << 16 | valid pages, destination line mask, see GCEventReader
+public class GCEventLog implements Closeable {
+    static final long MAGIC = 0x47434556454E5453L; // GCEVENTS
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_LONGS = 5;
+    static final int RECORD_BYTES = RECORD_LONGS * Long.BYTES;
+    // the destination lines of a victim are stored as a mask
+    static final int MAX_LINES = Long.SIZE;
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    // the file is mapped in regions of this many records
+    private static final int REGION_RECORDS = 1 << 20;
+    private static final long PARK_NANOS = 100 * 1000;
+
+    private final long[] ring;
+    private final int capacity;
+    private final int mask;
+
+    // records published by the simulator and records drained by the writer
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // simulator-local copies of head and of the last observed tail
+    private long produced = 0;
+    private long cachedTail = 0;
+    // number of runGC calls, which groups the victims collected together
+    private long batch = 0;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer region;
+    private long drainedBytes = 0;
+
+    private final Thread writer;
+    private volatile boolean closed = false;
+    // the first error of the writer, which the simulator rethrows so that it never waits on a dead writer
+    private volatile Throwable failure;
+
+    public GCEventLog(File file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    public GCEventLog(File file, int capacity) throws IOException {
+        assert Integer.bitCount(capacity) == 1;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.ring = new long[capacity * RECORD_LONGS];
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        this.channel = this.file.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putLong(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).flip();
+        channel.write(header, 0);
+        this.writer = new Thread(this::drain, "gc-event-log-" + file.getName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void beginBatch() {
+        batch++;
+    }
+
+    public void victim(long ts, int block, int line, int valid, long age, long destLines) {
+        if (produced - cachedTail == capacity) {
+            awaitSpace();
+        }
+        int i = (int) (produced & mask) * RECORD_LONGS;
+        ring[i] = ts;
+        ring[i + 1] = age;
+        ring[i + 2] = batch;
+        ring[i + 3] = ((long) block << 32) | ((line & 0xFFFFL) << 16) | valid;
+        ring[i + 4] = destLines;
+        head.lazySet(++produced);
+    }
+
+    private void awaitSpace() {
+        while (produced - (cachedTail = tail.get()) == capacity) {
+            if (failure != null) {
+                throw rethrow();
+            }
+            Thread.yield();
+        }
+    }
+
+    private RuntimeException rethrow() {
+        Throwables.propagateIfPossible(failure);
+        if (failure instanceof IOException) {
+            throw new UncheckedIOException((IOException) failure);
+        }
+        throw new RuntimeException(failure);
+    }
+
+    private void drain() {
+        try {
+            long drained = tail.get();
+            while (true) {
+                boolean done = closed;
+                long available = head.get();
+                boolean idle = drained == available;
+                for (; drained < available; drained++) {
+                    if (region == null || !region.hasRemaining()) {
+                        region = channel.map(MapMode.READ_WRITE, HEADER_BYTES + drainedBytes,
+                                (long) REGION_RECORDS * RECORD_BYTES);
+                    }
+                    int i = (int) (drained & mask) * RECORD_LONGS;
+                    for (int j = 0; j < RECORD_LONGS; j++) {
+                        region.putLong(ring[i + j]);
+                    }
+                    drainedBytes += RECORD_BYTES;
+                    // free the slots in steps, so that the simulator does not wait for a whole pass
+                    if ((drained & 1023) == 1023) {
+                        tail.lazySet(drained + 1);
+                    }
+                }
+                tail.lazySet(drained);
+                if (done && drained == head.get()) {
+                    return;
+                }
+                if (idle) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    public long events() {
+        return produced;
+    }
+
+    // waits until all events are written and cuts the file to the written records
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the GC event log", e);
+        }
+        if (region != null) {
+            region.force();
+            region = null;
+        }
+        file.setLength(HEADER_BYTES + drainedBytes);
+        file.close();
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure != null) {
+            throw rethrow();
+        }
+    }
+
+}
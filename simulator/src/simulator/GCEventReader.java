@@ -0,0 +1,85 @@
+package simulator;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import com.google.common.base.Preconditions;
+
+class GCEvent {
+    long ts;
+    // writes since the victim was closed
+    long age;
+    // victims collected by the same runGC have the same batch
+    long batch;
+    int block;
+    int line;
+    int valid;
+    // bit i is set if valid pages were moved to line i
+    long destLines;
+}
+
+// reads a log written by GCEventLog
+public class GCEventReader implements Closeable {
+
+    private final DataInputStream input;
+
+    public GCEventReader(String file) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            Preconditions.checkArgument(input.readLong() == GCEventLog.MAGIC, "%s is not a GC event log", file);
+            int version = input.readInt();
+            Preconditions.checkArgument(version == GCEventLog.VERSION, "Unsupported GC event log version %s",
+                    version);
+            Preconditions.checkArgument(input.readInt() == GCEventLog.RECORD_BYTES, "Unexpected record size");
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    public boolean read(GCEvent event) throws IOException {
+        try {
+            event.ts = input.readLong();
+            event.age = input.readLong();
+            event.batch = input.readLong();
+            long packed = input.readLong();
+            event.destLines = input.readLong();
+            event.block = (int) (packed >>> 32);
+            event.line = (int) ((packed >>> 16) & 0xFFFF);
+            event.valid = (int) (packed & 0xFFFF);
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    // prints a log as CSV for analysis
+    public static void main(String[] args) throws IOException {
+        Preconditions.checkArgument(args.length == 1, "Usage: GCEventReader <log file>");
+        GCEvent event = new GCEvent();
+        try (GCEventReader reader = new GCEventReader(args[0])) {
+            System.out.println("ts,batch,block,line,valid,age,destination lines");
+            while (reader.read(event)) {
+                StringBuilder lines = new StringBuilder();
+                for (long mask = event.destLines; mask != 0; mask &= mask - 1) {
+                    if (lines.length() > 0) {
+                        lines.append(' ');
+                    }
+                    lines.append(Long.numberOfTrailingZeros(mask));
+                }
+                System.out.println(event.ts + "," + event.batch + "," + event.block + "," + event.line + ","
+                        + event.valid + "," + event.age + "," + lines);
+            }
+        }
+    }
+
+}
@@ -6,11 +6,16 @@ import java.io.PrintWriter;
 import java.util.Comparator;
 import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
 
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntLists;
@@ -24,13 +29,29 @@ class Result {
     final String writeCost;
     final String gcCost;
     final String E;
+    final String gcCostError;
+    // windowed GC cost of each epoch
+    final double[] gcCostSeries;
+    final String victimHistograms;
 
     public Result(double fillFactor, double skew, String writeCost, String gcCost, String E) {
+        this(fillFactor, skew, writeCost, gcCost, E, "");
+    }
+
+    public Result(double fillFactor, double skew, String writeCost, String gcCost, String E, String gcCostError) {
+        this(fillFactor, skew, writeCost, gcCost, E, gcCostError, new double[0], "");
+    }
+
+    public Result(double fillFactor, double skew, String writeCost, String gcCost, String E, String gcCostError,
+            double[] gcCostSeries, String victimHistograms) {
         this.fillFactor = fillFactor;
         this.skew = skew;
         this.gcCost = gcCost;
         this.E = E;
         this.writeCost = writeCost;
+        this.gcCostError = gcCostError;
+        this.gcCostSeries = gcCostSeries;
+        this.victimHistograms = victimHistograms;
     }
 
 }
@@ -38,18 +59,36 @@ class Result {
 public class GCExperiment {
     private static final int BATCH_BLOCKS = 64;
 
-    private static final int SCALE_FACTOR = 100;
+    static final int SCALE_FACTOR = 100;
 
     private static final Random random = new Random(0);
 
     private static final int THREADS = 4;
 
+    // if set, the per-epoch metrics of each run are written to this directory as csv or json
+    private static final String metricsDir = System.getProperty("metrics.dir");
+    private static final String metricsFormat = System.getProperty("metrics.format", "csv");
+    // if set, every victim of each run is logged to this directory, see GCEventLog
+    private static final String eventsDir = System.getProperty("events.dir");
+    // if set, the latency of user writes is modeled, see LatencyModel.fromProperties
+    private static final boolean latency = Boolean.getBoolean("latency");
+    // the high watermark of background GC in blocks of the full-size device, 0 to disable. It needs the idle time
+    // of the latency model, i.e., -Dlatency=true and an open-loop -Dlatency.rate
+    static final int backgroundGCBlocks = Integer.getInteger("gc.background", 0);
+    // a sampled cell is run with this many sampler salts, whose spread bounds the error of the sampling
+    static final int sampleSalts = Math.max(2, Integer.getInteger("sample.salts", 4));
+
     private static final double[] ZIPF_FACTORS = new double[] { 0.5, 0.6, 0.7, 0.8, 0.9, 0.95 };
     private static final double[] VLDB_FACTORS = new double[] { 1 / 1.1, 1 / 1.2, 1 / 1.3, 1 / 1.5, 1 / 1.75, 1 / 2.0 };
 
     private static final ThreadPoolExecutor executor =
             new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
 
+    // memory budget in MB of the forked experiments, see SweepRunner
+    private static final int memoryMB = Integer.getInteger("memory.mb",
+            (int) (Runtime.getRuntime().maxMemory() * SweepRunner.DEFAULT_BUDGET_RATIO / SweepRunner.MB));
+    private static final Semaphore memory = new Semaphore(memoryMB);
+
     public static void main(String[] args) throws Exception {
         runUniform();
         executor.shutdown();
@@ -121,6 +160,11 @@ public class GCExperiment {
                 oracleMode ? new OptBlockSelector() : new MultiLogBlockSelector(), null, null, BATCH_BLOCKS, true);
     }
 
+    private static Param getGlobalMultiLogParam(LpidGeneratorFactory gen) {
+        return new Param("Multi-Log-Global", gen, NoWriteBuffer.INSTANCE, new MultiLogBlockSelector(), null, null,
+                BATCH_BLOCKS, true).withGlobalLineSelection();
+    }
+
     private static Param getSortParam(LpidGeneratorFactory gen, int batchBlocks) {
         Comparator<Block> priorTsSorter = (b1, b2) -> Double.compare(b1.priorTsSum, b2.priorTsSum);
         return new Param("MinDecline", gen, new SortWriteBuffer(batchBlocks * GCSimulator.BLOCK_SIZE),
@@ -130,7 +174,8 @@ public class GCExperiment {
     private static void varFillFactorMultiLog(double[] factors, double skew)
             throws IOException, InterruptedException, ExecutionException {
         LpidGeneratorFactory gen = new ZipfLpidGeneratorFactory(skew);
-        Param[] params = new Param[] { getMultiLogParam(gen, false), getMultiLogParam(gen, true) };
+        Param[] params =
+                new Param[] { getMultiLogParam(gen, false), getGlobalMultiLogParam(gen), getMultiLogParam(gen, true) };
         runExperiments("multi-log-skew-" + skew, factors, params, skew);
     }
 
@@ -155,6 +200,51 @@ public class GCExperiment {
         runExperiments("skew-" + skew, factors, params, skew);
     }
 
+    private static void varFillFactorSampled(double[] factors, double skew, double sampleRate)
+            throws IOException, InterruptedException, ExecutionException {
+        Comparator<Block> priorTsSorter = (b1, b2) -> Double.compare(b1.priorTsSum, b2.priorTsSum);
+
+        LpidGeneratorFactory gen = new ZipfLpidGeneratorFactory(skew);
+        Param[] params = new Param[] {
+                new Param("Greedy", gen, NoWriteBuffer.INSTANCE, NoBlockSelector.INSTANCE, new MaxAvail(), null,
+                        BATCH_BLOCKS, false),
+                new Param("Min-Decline", gen, new SortWriteBuffer(BATCH_BLOCKS * GCSimulator.BLOCK_SIZE),
+                        NoBlockSelector.INSTANCE, new MinDecline(), priorTsSorter, BATCH_BLOCKS, false) };
+        runExperiments("skew-" + skew + "-sample-" + sampleRate, factors, params, skew, sampleRate);
+    }
+
+    private static void varFillFactorForked(double[] factors, double skew)
+            throws IOException, InterruptedException, ExecutionException {
+        Comparator<Block> priorTsSorter = (b1, b2) -> Double.compare(b1.priorTsSum, b2.priorTsSum);
+
+        LpidGeneratorFactory gen = new ZipfLpidGeneratorFactory(skew);
+        Param[] params = new Param[] {
+                new Param("Greedy", gen, NoWriteBuffer.INSTANCE, NoBlockSelector.INSTANCE, new MaxAvail(), null,
+                        BATCH_BLOCKS, false),
+                new Param("Berkeley", gen, NoWriteBuffer.INSTANCE, NoBlockSelector.INSTANCE, new Berkeley(), null,
+                        BATCH_BLOCKS, false),
+                new Param("Min-Decline", gen, new SortWriteBuffer(BATCH_BLOCKS * GCSimulator.BLOCK_SIZE),
+                        NoBlockSelector.INSTANCE, new MinDecline(), priorTsSorter, BATCH_BLOCKS, false),
+                new Param("Greedy-Learned", gen, NoWriteBuffer.INSTANCE, new DecayBlockSelector(9, 1.0),
+                        new MaxAvail(), null, BATCH_BLOCKS, false) };
+        runExperimentsForked("forked-skew-" + skew, factors, params, skew);
+    }
+
+    private static void varFillFactorLearned(double[] factors, double skew)
+            throws IOException, InterruptedException, ExecutionException {
+        Comparator<Block> priorTsSorter = (b1, b2) -> Double.compare(b1.priorTsSum, b2.priorTsSum);
+
+        LpidGeneratorFactory gen = new ZipfLpidGeneratorFactory(skew);
+        Param[] params = new Param[] {
+                new Param("Greedy-Learned", gen, NoWriteBuffer.INSTANCE, new DecayBlockSelector(9, 1.0),
+                        new MaxAvail(), null, BATCH_BLOCKS, false),
+                new Param("Min-Decline-Learned", gen, NoWriteBuffer.INSTANCE, new DecayBlockSelector(9, 1.0),
+                        new MinDecline(), priorTsSorter, BATCH_BLOCKS, false),
+                new Param("Min-Decline-OPT", gen, NoWriteBuffer.INSTANCE, new OptBlockSelector(), new MinDeclineOpt(),
+                        null, BATCH_BLOCKS, false) };
+        runExperiments("learned-skew-" + skew, factors, params, skew);
+    }
+
     private static void varSortSize() throws IOException, InterruptedException, ExecutionException {
         double skew = 0.99;
         double[] factors = new double[] { 0.8 };
@@ -176,20 +266,122 @@ public class GCExperiment {
 
     }
 
+    private static void varDedupSize(double skew) throws IOException, InterruptedException, ExecutionException {
+        double[] factors = new double[] { 0.8 };
+        Comparator<Block> priorTsSorter = (b1, b2) -> Double.compare(b1.priorTsSum, b2.priorTsSum);
+
+        LpidGeneratorFactory gen = new ZipfLpidGeneratorFactory(skew);
+        Param[] params = new Param[6];
+
+        params[0] = new Param("Min-Decline-" + 0, gen, NoWriteBuffer.INSTANCE, NoBlockSelector.INSTANCE,
+                new MinDecline(), priorTsSorter, BATCH_BLOCKS, false);
+
+        int blocks = 1;
+        for (int i = 1; i < params.length; i++) {
+            params[i] = new Param("Min-Decline-Dedup-" + blocks, gen,
+                    new DedupWriteBuffer(blocks * GCSimulator.BLOCK_SIZE, true), NoBlockSelector.INSTANCE,
+                    new MinDecline(), priorTsSorter, BATCH_BLOCKS, false);
+            blocks *= 4;
+        }
+        runExperiments("var-dedup-size-" + skew, factors, params, skew);
+    }
+
+    private static void varStreams(double skew, MultiStreamWriteBuffer.Temperature temperature)
+            throws IOException, InterruptedException, ExecutionException {
+        double[] factors = new double[] { 0.8 };
+        LpidGeneratorFactory gen = new ZipfLpidGeneratorFactory(skew);
+        int[] streams = new int[] { 1, 2, 4, 8, 16 };
+        Param[] params = new Param[streams.length];
+        for (int i = 0; i < streams.length; i++) {
+            params[i] = new Param("Greedy-Streams-" + streams[i], gen,
+                    new MultiStreamWriteBuffer(BATCH_BLOCKS * GCSimulator.BLOCK_SIZE, streams[i], temperature),
+                    new StreamBlockSelector(streams[i]), new MaxAvail(), null, BATCH_BLOCKS, false);
+        }
+        runExperiments("var-streams-" + skew + "-" + temperature, factors, params, skew);
+    }
+
     private static void runExperiments(String name, double[] factors, Param[] params, double skew)
             throws IOException, InterruptedException, ExecutionException {
+        runExperiments(name, factors, params, skew, 1.0);
+    }
+
+    private static void runExperiments(String name, double[] factors, Param[] params, double skew, double sampleRate)
+            throws IOException, InterruptedException, ExecutionException {
+        ResultStore store = new ResultStore(new File(name + ".results"));
         Future[][] results = new Future[factors.length][params.length];
         for (int i = 0; i < factors.length; i++) {
             for (int j = 0; j < params.length; j++) {
-                results[i][j] = run(params[j], skew, factors[i]);
+                results[i][j] = run(store, params[j], skew, factors[i], sampleRate);
             }
         }
+        writeResults(name, factors, params, sampleRate < 1, results);
+        System.out.println("Completed skew " + skew);
+    }
+
+    // loads each fill factor once and forks a child per param from it. A parent and its children are admitted
+    // within the memory budget like the cells of SweepRunner, and the parent's permits are released with its last
+    // child, which may still share its arrays. Each is limited to half the budget, so that a parent and one child
+    // always fit
+    private static void runExperimentsForked(String name, double[] factors, Param[] params, double skew)
+            throws IOException, InterruptedException, ExecutionException {
+        ResultStore store = new ResultStore(new File(name + ".results"));
+        Future[][] results = new Future[factors.length][params.length];
+        for (int i = 0; i < factors.length; i++) {
+            double fillFactor = factors[i];
+            GCSimulator loaded = null;
+            int loadedPermits = estimatePermits(params[0], fillFactor);
+            // the children of the loaded simulator that are not finished, plus one until all are submitted
+            AtomicInteger references = new AtomicInteger(1);
+            for (int j = 0; j < params.length; j++) {
+                String key = ResultStore.key(params[j], skew, fillFactor, 1.0, SCALE_FACTOR);
+                Result stored = store.get(key);
+                if (stored != null) {
+                    results[i][j] = CompletableFuture.completedFuture(stored);
+                    continue;
+                }
+                if (loaded == null) {
+                    memory.acquire(loadedPermits);
+                    loaded = createLoaded(params[0], fillFactor, 1.0);
+                }
+                GCSimulator sim = loaded.fork(params[j]);
+                int permits = estimatePermits(params[j], fillFactor);
+                memory.acquire(permits);
+                references.incrementAndGet();
+                results[i][j] = executor.submit(() -> {
+                    try {
+                        return store(store, key, simulate(sim, skew, fillFactor));
+                    } finally {
+                        memory.release(permits);
+                        if (references.decrementAndGet() == 0) {
+                            memory.release(loadedPermits);
+                        }
+                    }
+                });
+            }
+            if (loaded != null && references.decrementAndGet() == 0) {
+                memory.release(loadedPermits);
+            }
+        }
+        writeResults(name, factors, params, false, results);
+        System.out.println("Completed skew " + skew);
+    }
+
+    private static int estimatePermits(Param param, double fillFactor) {
+        return (int) Math.min(memoryMB / 2,
+                Math.ceil((double) SweepRunner.estimateBytes(param, fillFactor, 1.0) / SweepRunner.MB));
+    }
+
+    static void writeResults(String name, double[] factors, Param[] params, boolean sampled, Future[][] results)
+            throws IOException, InterruptedException, ExecutionException {
         PrintWriter writer = new PrintWriter(new File(name + ".csv"));
         writer.print("fill factor\t");
         for (Param param : params) {
             writer.append(param.name + "-E\t");
             writer.append(param.name + "-write cost\t");
             writer.append(param.name + "-GC cost\t");
+            if (sampled) {
+                writer.append(param.name + "-GC cost error\t");
+            }
         }
         writer.println();
 
@@ -206,6 +398,10 @@ public class GCExperiment {
                 sb.append("\t");
                 sb.append(result.gcCost);
                 sb.append("\t");
+                if (sampled) {
+                    sb.append(result.gcCostError);
+                    sb.append("\t");
+                }
             }
             writer.println(sb.toString());
             writer.flush();
@@ -213,12 +409,9 @@ public class GCExperiment {
             System.out.flush();
         }
         writer.close();
-
-        System.out.println("Completed skew " + skew);
     }
 
-    private static IntArrayList load(double fillFactor) {
-        int numKeys = (int) (fillFactor * GCSimulator.TOTAL_PAGES);
+    private static IntArrayList load(int numKeys, Random random) {
         IntArrayList lpids = new IntArrayList(numKeys);
         for (int i = 0; i < numKeys; i++) {
             lpids.add(i + 1);
@@ -229,27 +422,162 @@ public class GCExperiment {
     }
 
     public static Future<Result> run(Param param, double skewness, double fillFactor) throws IOException {
+        return run(param, skewness, fillFactor, 1.0);
+    }
+
+    // returns the stored result of the cell, or runs it and appends its result to the store
+    public static Future<Result> run(ResultStore store, Param param, double skewness, double fillFactor,
+            double sampleRate) throws IOException {
+        String key = ResultStore.key(param, skewness, fillFactor, sampleRate, SCALE_FACTOR);
+        Result stored = store.get(key);
+        if (stored != null) {
+            return CompletableFuture.completedFuture(stored);
+        }
+        return executor.submit(() -> store(store, key, simulate(param, skewness, fillFactor, sampleRate)));
+    }
+
+    static Result store(ResultStore store, String key, Result result) throws IOException {
+        store.append(key, result);
+        return result;
+    }
+
+    public static Future<Result> run(Param param, double skewness, double fillFactor, double sampleRate)
+            throws IOException {
         return executor.submit(new Callable<Result>() {
             @Override
             public Result call() throws Exception {
-                IntArrayList lpids = load(fillFactor);
-                GCSimulator sim = param.multiLog ? new MultiLogSimulator(param, lpids.size())
-                        : new GCSimulator(param, lpids.size());
-                sim.load(lpids.toIntArray());
-                long totalPages = (long) GCSimulator.TOTAL_PAGES * SCALE_FACTOR;
-                sim.run(totalPages);
-                if (sim.blockSelector instanceof MultiLogBlockSelector) {
-                    MultiLogBlockSelector selector = (MultiLogBlockSelector) sim.blockSelector;
-                    System.out.println(String.format("user intervals: %d, user lpids: %d, intended: %d, promoted: %d",
-                            selector.intervals.size(), selector.userTotal, selector.userIntended,
-                            selector.userPromoted));
-                    System.out.println(String.format("gc intervals: %d, gc lpids: %d, deomoted: %d",
-                            selector.intervals.size(), selector.gcTotal, selector.gcDemoted));
-                }
-                return new Result(fillFactor, skewness, sim.formatWriteCost(), sim.formatGCCost(), sim.formatE());
+                return simulate(param, skewness, fillFactor, sampleRate);
             }
         });
 
     }
 
+    static Result simulate(Param param, double skewness, double fillFactor, double sampleRate) throws IOException {
+        if (sampleRate < 1) {
+            return simulateSalted(param, skewness, fillFactor, sampleRate);
+        }
+        return simulate(createLoaded(param, fillFactor, sampleRate), skewness, fillFactor);
+    }
+
+    // runs a sampled cell once per sampler salt. The GC cost is the mean over the salts, and its error the half width
+    // of their confidence interval, so that it covers which lpids happen to be sampled
+    private static Result simulateSalted(Param param, double skewness, double fillFactor, double sampleRate)
+            throws IOException {
+        double[] E = new double[sampleSalts];
+        double[] writeCosts = new double[sampleSalts];
+        double[] gcCosts = new double[sampleSalts];
+        double[] gcCostSeries = null;
+        String victimHistograms = "";
+        for (int salt = 0; salt < sampleSalts; salt++) {
+            GCSimulator sim = createSimulator(param, fillFactor, sampleRate, salt);
+            sim.load(load(sim.gen.maxLpid(), random).toIntArray());
+            Result result = simulate(sim, skewness, fillFactor, "-salt-" + salt);
+            E[salt] = sim.getE();
+            writeCosts[salt] = sim.getWriteCost();
+            gcCosts[salt] = sim.getGCCost();
+            gcCostSeries = ReplicatedRun.addSeries(gcCostSeries, result.gcCostSeries);
+            if (salt == 0) {
+                victimHistograms = result.victimHistograms;
+            }
+        }
+        for (int i = 0; i < gcCostSeries.length; i++) {
+            gcCostSeries[i] /= sampleSalts;
+        }
+        Estimate gcCost = Estimate.of(gcCosts, 0, sampleSalts);
+        return new Result(fillFactor, skewness, format(Estimate.of(writeCosts, 0, sampleSalts).mean),
+                format(gcCost.mean), format(Estimate.of(E, 0, sampleSalts).mean), format(gcCost.halfWidth),
+                gcCostSeries, victimHistograms);
+    }
+
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
+
+    static GCSimulator createLoaded(Param param, double fillFactor, double sampleRate) {
+        GCSimulator sim = createSimulator(param, fillFactor, sampleRate, 0);
+        sim.load(load(sim.gen.maxLpid(), random).toIntArray());
+        return sim;
+    }
+
+    // a replica whose load order, lpid sequence and sampled lpids are determined by the seed
+    static GCSimulator createLoaded(Param param, double fillFactor, double sampleRate, long seed) {
+        GCSimulator sim = createSimulator(param, fillFactor, sampleRate, seed);
+        sim.gen.reseed(seed);
+        sim.load(load(sim.gen.maxLpid(), new Random(seed)).toIntArray());
+        return sim;
+    }
+
+    private static GCSimulator createSimulator(Param param, double fillFactor, double sampleRate, long salt) {
+        int numKeys = (int) (fillFactor * GCSimulator.TOTAL_PAGES);
+        if (sampleRate < 1) {
+            // simulate the sampled lpids on a proportionally scaled device with the same fill factor
+            SpatialSampler sampler = new SpatialSampler(sampleRate, salt);
+            LpidGenerator gen = new SampledLpidGenerator(param.genFactory.create(numKeys), sampler);
+            return param.createSimulator(gen, sampler.scalePages(gen.maxLpid(), fillFactor));
+        } else {
+            return param.createSimulator(numKeys);
+        }
+    }
+
+    static Result simulate(GCSimulator sim, double skewness, double fillFactor) throws IOException {
+        return simulate(sim, skewness, fillFactor, "");
+    }
+
+    // the suffix distinguishes the metrics and event files of runs of the same cell
+    static Result simulate(GCSimulator sim, double skewness, double fillFactor, String suffix) throws IOException {
+        Preconditions.checkArgument(backgroundGCBlocks == 0 || latency, "Background GC requires -Dlatency=true");
+        Preconditions.checkArgument(
+                backgroundGCBlocks == 0 || LatencyModel.fromProperties(DeviceGeometry.SINGLE_DIE).arrivalRate > 0,
+                "Background GC runs when the dies are idle, which closed-loop writes never are. Set -Dlatency.rate");
+        long totalPages = (long) sim.totalPages * SCALE_FACTOR;
+        String prefix = sim.param.name + "-" + skewness + "-" + fillFactor + suffix;
+        if (eventsDir != null) {
+            sim.events = new GCEventLog(new File(eventsDir, prefix + ".gclog"));
+        }
+        if (latency) {
+            sim.latency = LatencyModel.fromProperties(sim.geometry);
+            sim.latency.setBufferCapacity(sim.writeBuffer.capacity());
+        }
+        if (backgroundGCBlocks > 0) {
+            sim.backgroundGCBlocks = Math.max(sim.gcTriggerBlocks + 1, sim.scaleBlocks(backgroundGCBlocks));
+        }
+        try {
+            sim.run(totalPages);
+        } finally {
+            if (sim.events != null) {
+                sim.events.close();
+            }
+        }
+        if (metricsDir != null) {
+            sim.metrics.write(new File(metricsDir, prefix + "." + metricsFormat));
+            sim.victims.write(new File(metricsDir, prefix + "-victims.csv"));
+            sim.writeEraseCounts(new File(metricsDir, prefix + "-erases.csv"));
+            if (sim.latency != null) {
+                sim.latency.write(new File(metricsDir, prefix + "-latency.csv"));
+            }
+        }
+        if (sim.latency != null) {
+            System.out.println(prefix + " " + sim.latency.summary());
+        }
+        if (sim.backgroundGCBlocks > 0) {
+            System.out.println(String.format("%s background GC moved pages: %d of %d, blocks: %d of %d", prefix,
+                    sim.backgroundMovedPages, sim.movedPages, sim.backgroundMovedBlocks, sim.movedBlocks));
+        }
+        System.out.println(prefix + " " + sim.formatWear());
+        if (sim.blockSelector instanceof MultiLogBlockSelector) {
+            MultiLogBlockSelector selector = (MultiLogBlockSelector) sim.blockSelector;
+            System.out.println(String.format("user intervals: %d, user lpids: %d, intended: %d, promoted: %d",
+                    selector.intervals.size(), selector.userTotal, selector.userIntended, selector.userPromoted));
+            System.out.println(String.format("gc intervals: %d, gc lpids: %d, deomoted: %d",
+                    selector.intervals.size(), selector.gcTotal, selector.gcDemoted));
+        }
+        if (sim.writeBuffer instanceof DedupWriteBuffer) {
+            DedupWriteBuffer buffer = (DedupWriteBuffer) sim.writeBuffer;
+            System.out.println(String.format("buffered writes: %d, absorbed: %d, absorption ratio: %.3f",
+                    buffer.writes, buffer.absorbed, buffer.absorptionRatio()));
+        }
+        return new Result(fillFactor, skewness, sim.formatWriteCost(), sim.formatGCCost(), sim.formatE(), "",
+                sim.metrics.gcCostSeries(), sim.victims.toString());
+    }
+
 }
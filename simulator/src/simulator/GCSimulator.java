@@ -1,19 +1,25 @@
 package simulator;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.google.common.base.Preconditions;
+
 import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrays;
 import simulator.Block.State;
+import simulator.PhaseTimers.Phase;
 
 class Param {
     final String name;
@@ -24,6 +30,14 @@ class Param {
     final int batchBlocks;
     final Comparator<Block> sorter;
     final boolean multiLog;
+    // multi-log GC picks the line with the globally largest derivative instead of comparing neighbors
+    boolean globalLineSelection = false;
+    DeviceGeometry geometry = DeviceGeometry.SINGLE_DIE;
+    // gives the least-worn free blocks to user writes and the most-worn to GC, see WearAwareFreeBlockPool
+    boolean wearAware = false;
+    // static wear leveling migrates the least-worn used block when the erase counts spread wider than this, 0
+    // disables it
+    int wearLevelingThreshold = 0;
 
     public Param(String name, LpidGeneratorFactory genFactory, WriteBuffer writeBuffer, BlockSelector blockSelector,
             ScoreComputer scoreComputer, Comparator<Block> sorter, int batchBlocks, boolean multiLog) {
@@ -37,6 +51,34 @@ class Param {
         this.multiLog = multiLog;
     }
 
+    public Param withGlobalLineSelection() {
+        this.globalLineSelection = true;
+        return this;
+    }
+
+    // stripes the open blocks over the dies of the geometry
+    public Param withGeometry(DeviceGeometry geometry) {
+        this.geometry = geometry;
+        return this;
+    }
+
+    public Param withWearAwareAllocation() {
+        this.wearAware = true;
+        return this;
+    }
+
+    public Param withStaticWearLeveling(int threshold) {
+        Preconditions.checkArgument(threshold > 0 && !multiLog, "Static wear leveling needs a positive threshold "
+                + "and does not support multi-log");
+        this.wearLevelingThreshold = threshold;
+        return this;
+    }
+
+    public FreeBlockPool createFreeBlockPool() {
+        Supplier<FreeBlockPool> pool = wearAware ? WearAwareFreeBlockPool::new : FifoFreeBlockPool::new;
+        return geometry.dies > 1 ? new StripedFreeBlockPool(geometry, pool) : pool.get();
+    }
+
     public BlockSelector createBlockSelector() {
         return blockSelector.clone();
     }
@@ -45,6 +87,25 @@ class Param {
         return writeBuffer.clone();
     }
 
+    public GCSimulator createSimulator(int maxLpid) {
+        return createSimulator(genFactory.create(maxLpid), GCSimulator.TOTAL_PAGES);
+    }
+
+    public GCSimulator createSimulator(LpidGenerator gen, int totalPages) {
+        return multiLog ? new MultiLogSimulator(this, gen, totalPages) : new GCSimulator(this, gen, totalPages);
+    }
+
+    // every setting that changes the results of a simulation, see ResultStore.key. The sorter is a comparator, so
+    // only its presence is encoded and sorters must be told apart by the name
+    public String key() {
+        return String.join("|", name, genFactory.key(), writeBuffer.key(), blockSelector.key(),
+                scoreComputer != null ? scoreComputer.name() : "none", String.valueOf(batchBlocks),
+                String.valueOf(sorter != null), String.valueOf(multiLog), String.valueOf(globalLineSelection),
+                geometry.toString())
+                + (wearAware ? "|wear-aware" : "")
+                + (wearLevelingThreshold > 0 ? "|wear-leveling-" + wearLevelingThreshold : "");
+    }
+
     @Override
     public String toString() {
         return genFactory + "/" + blockSelector.name() + "/" + scoreComputer.name();
@@ -63,10 +124,28 @@ public class GCSimulator {
 
     public static final int GC_TRIGGER_BLOCKS = 32;
 
+    // progress is logged every LOG_EPOCHS epochs and recorded in metrics every epoch
+    private static final int LOG_EPOCHS = 10;
+
+    // victims are the blocks with the lowest scores, and ties go to the lower block index, so that scanning and
+    // the score heap select the same victims in the same order
+    private static final Comparator<Block> VICTIM_ORDER =
+            Comparator.<Block> comparingDouble(b -> b.score).thenComparingInt(b -> b.blockIndex);
+
+    public final int totalPages;
+    public final int totalBlocks;
+    public final int gcTriggerBlocks;
+    public final int gcBatchBlocks;
+
     public final Block[] blocks;
-    public final Deque<Block> freeBlocks = new LinkedList<>();
+    final BlockArrays blockArrays;
+    private final double[] scores;
+    // used blocks keyed by negated score, maintained incrementally for time-invariant scorers
+    private final IndexedDoubleHeap scoreHeap;
+    public final FreeBlockPool freeBlocks;
+    public final DeviceGeometry geometry;
     public int usedBlocks = 0;
-    public long[] mappingTable = new long[TOTAL_PAGES];
+    final MappingTable mappingTable;
     public long currentTs = 0;
     public long movedPages = 0;
     public long movedBlocks = 0;
@@ -76,9 +155,35 @@ public class GCSimulator {
     public long prevMovedPages = 0;
     public long prevMovedBlocks = 0;
 
+    // counters of each progress epoch
+    public final MetricsRecorder metrics;
+    public final VictimHistograms victims;
+    public final PhaseTimers timers = new PhaseTimers();
+    // records every victim if set
+    public GCEventLog events;
+    // times every user write if set
+    public LatencyModel latency;
+    // the high watermark of background GC, which cleans blocks in the idle time of the latency model until this
+    // many blocks are free. Foreground GC still runs at gcTriggerBlocks, the low watermark. 0 disables it
+    public int backgroundGCBlocks = 0;
+    public long backgroundMovedPages = 0;
+    public long backgroundMovedBlocks = 0;
+    // line of the last user write, which background GC uses like checkGC
+    private int lastLine = 0;
+    // pages and blocks moved by static wear leveling, which are included in movedPages and movedBlocks
+    public long wearLevelingMovedPages = 0;
+    public long wearLevelingMovedBlocks = 0;
+    // the largest erase count of any block, and the erases until the spread is checked next
+    private int maxEraseCount = 0;
+    private int wearLevelingCountdown = 0;
+
     public final List<Line> lines = new ArrayList<>();
-    public final List<Block> userBlocks = new ArrayList<>();
-    public final List<Block> gcBlocks = new ArrayList<>();
+    // the open blocks of each line, one per die, which take consecutive pages in turn like a superblock, so that
+    // the programs of a line are spread over all dies. The cursors are the next block of each line
+    public final List<Block[]> userBlocks = new ArrayList<>();
+    public final List<Block[]> gcBlocks = new ArrayList<>();
+    private final IntArrayList userCursors = new IntArrayList();
+    private final IntArrayList gcCursors = new IntArrayList();
 
     public int maxLpid = -1;
     public final Param param;
@@ -88,29 +193,140 @@ public class GCSimulator {
     public final WriteBuffer writeBuffer;
     private boolean gcReversed;
 
+    private long[] deleteAddrs = new long[BLOCK_SIZE];
+    private final IntArrayList deleteLpids = new IntArrayList(1);
+
     public GCSimulator(Param param, int maxLpid) {
+        this(param, param.genFactory.create(maxLpid), TOTAL_PAGES);
+    }
+
+    public GCSimulator(Param param, LpidGenerator gen, int totalPages) {
+        assert totalPages % BLOCK_SIZE == 0;
         this.param = param;
-        Arrays.fill(mappingTable, -1);
-        blocks = new Block[TOTAL_BLOCKS];
-        for (int i = 0; i < TOTAL_BLOCKS; i++) {
-            blocks[i] = new Block(i, BLOCK_SIZE);
+        this.totalPages = totalPages;
+        this.totalBlocks = totalPages / BLOCK_SIZE;
+        // GC may replace a full user block and a full GC block on every die before it frees a block
+        this.gcTriggerBlocks = Math.max(2 * param.geometry.dies, scaleBlocks(GC_TRIGGER_BLOCKS));
+        this.gcBatchBlocks = scaleBlocks(param.batchBlocks);
+        this.mappingTable = new MappingTable(totalPages);
+        this.metrics = new MetricsRecorder();
+        this.victims = new VictimHistograms();
+        this.geometry = param.geometry;
+        this.freeBlocks = param.createFreeBlockPool();
+        blocks = new Block[totalBlocks];
+        blockArrays = new BlockArrays(totalBlocks);
+        scores = new double[totalBlocks];
+        scoreHeap = param.scoreComputer != null && param.scoreComputer.isTimeInvariant()
+                ? new IndexedDoubleHeap(totalBlocks) : null;
+        for (int i = 0; i < totalBlocks; i++) {
+            blocks[i] = new Block(i, BLOCK_SIZE, blockArrays);
             blocks[i].reset();
-            freeBlocks.addLast(blocks[i]);
+            freeBlocks.add(blocks[i]);
         }
-        this.gen = param.genFactory.create(maxLpid);
+        this.gen = gen;
         this.writeBuffer = param.createWriteBuffer();
         this.blockSelector = param.createBlockSelector();
         this.blockSelector.init(this);
     }
 
+    // a child of a loaded simulator, see fork()
+    private GCSimulator(GCSimulator parent, Param param) {
+        this.param = param;
+        this.totalPages = parent.totalPages;
+        this.totalBlocks = parent.totalBlocks;
+        this.gcTriggerBlocks = parent.gcTriggerBlocks;
+        this.gcBatchBlocks = scaleBlocks(param.batchBlocks);
+        this.mappingTable = parent.mappingTable.fork();
+        blocks = new Block[totalBlocks];
+        blockArrays = parent.blockArrays.copy();
+        scores = new double[totalBlocks];
+        scoreHeap = param.scoreComputer != null && param.scoreComputer.isTimeInvariant()
+                ? new IndexedDoubleHeap(totalBlocks) : null;
+        for (int i = 0; i < totalBlocks; i++) {
+            blocks[i] = parent.blocks[i].fork(blockArrays);
+        }
+        this.geometry = parent.geometry;
+        // the child allocates with its own pool, e.g., wear-aware from a FIFO parent
+        FreeBlockPool freeBlocks = param.createFreeBlockPool();
+        parent.freeBlocks.forEach(block -> freeBlocks.add(blocks[block.blockIndex]));
+        this.freeBlocks = freeBlocks;
+        this.usedBlocks = parent.usedBlocks;
+        // the open blocks of the parent are empty after sealing, and the block selector of the child opens its own
+        for (Block[] stripe : parent.userBlocks) {
+            for (Block block : stripe) {
+                releaseOpenBlock(blocks[block.blockIndex]);
+            }
+        }
+        for (Block[] stripe : parent.gcBlocks) {
+            for (Block block : stripe) {
+                releaseOpenBlock(blocks[block.blockIndex]);
+            }
+        }
+        this.currentTs = parent.currentTs;
+        this.movedPages = parent.movedPages;
+        this.movedBlocks = parent.movedBlocks;
+        this.writes = parent.writes;
+        this.prevWrites = parent.prevWrites;
+        this.prevMovedPages = parent.prevMovedPages;
+        this.prevMovedBlocks = parent.prevMovedBlocks;
+        this.maxEraseCount = parent.maxEraseCount;
+        this.metrics = parent.metrics.copy();
+        this.victims = parent.victims.copy();
+        this.maxLpid = parent.maxLpid;
+        this.gen = parent.gen.fork();
+        // scorers may read the generator and the timestamp
+        for (Block block : blocks) {
+            updateScore(block);
+        }
+        this.writeBuffer = param.createWriteBuffer();
+        this.blockSelector = param.createBlockSelector();
+        this.blockSelector.init(this);
+        Preconditions.checkArgument(lines.size() >= parent.lines.size(),
+                "The child has fewer lines than the loaded blocks use");
+    }
+
+    // forks this loaded simulator into a child that continues with another param, so that several policies
+    // can share one load phase. The child shares the mapping table and the lpid arrays of the blocks
+    // copy-on-write. The open blocks of this simulator are sealed first, i.e., their unwritten pages are counted
+    // as invalid, because the child starts with the open blocks of its own block selector.
+    public GCSimulator fork(Param param) {
+        Preconditions.checkArgument(!this.param.multiLog && !param.multiLog, "Multi-log simulators cannot be forked");
+        Preconditions.checkArgument(param.geometry.channels == geometry.channels
+                && param.geometry.diesPerChannel == geometry.diesPerChannel, "A fork runs on the same geometry");
+        writeBuffer.flush(this);
+        sealOpenBlocks(userBlocks);
+        sealOpenBlocks(gcBlocks);
+        return new GCSimulator(this, param);
+    }
+
+    private void releaseOpenBlock(Block block) {
+        assert block.state == State.Open && block.count == 0;
+        block.reset();
+        freeBlocks.addFirst(block);
+        usedBlocks--;
+    }
+
+    private void sealOpenBlocks(List<Block[]> openBlocks) {
+        for (Block[] stripe : openBlocks) {
+            for (int die = 0; die < stripe.length; die++) {
+                Block block = stripe[die];
+                if (block.count > 0) {
+                    block.seal();
+                    closeBlock(block);
+                    stripe[die] = getFreeBlock(block.line, openBlocks == userBlocks, die);
+                }
+            }
+        }
+    }
+
     public void load(int[] lpids) {
         this.maxLpid = lpids.length;
         int progress = lpids.length / 10;
         for (int i = 0; i < lpids.length; i++) {
             write(lpids[i]);
             if (i % progress == 0) {
-                LOGGER.error("Simulation {}/{}/{} loaded {}/{}.", param.name, gen.name(),
-                        (double) maxLpid / TOTAL_PAGES, i, maxLpid);
+                LOGGER.info("Simulation {}/{}/{} loaded {}/{}.", param.name, gen.name(),
+                        (double) maxLpid / totalPages, i, maxLpid);
             }
         }
         writeBuffer.flush(this);
@@ -120,8 +336,32 @@ public class GCSimulator {
     public void addLine() {
         int line = lines.size();
         lines.add(new Line(this, line));
-        userBlocks.add(getFreeBlock(line));
-        gcBlocks.add(getFreeBlock(line));
+        userBlocks.add(openStripe(line, true));
+        gcBlocks.add(openStripe(line, false));
+        userCursors.add(0);
+        gcCursors.add(0);
+    }
+
+    private Block[] openStripe(int line, boolean hot) {
+        Block[] stripe = new Block[geometry.dies];
+        for (int die = 0; die < stripe.length; die++) {
+            stripe[die] = getFreeBlock(line, hot, die);
+        }
+        return stripe;
+    }
+
+    // the open block of the line that takes the next page, which replaces the block if it is full
+    private Block nextOpenBlock(List<Block[]> openBlocks, IntArrayList cursors, int line, boolean hot) {
+        Block[] stripe = openBlocks.get(line);
+        int die = cursors.getInt(line);
+        cursors.set(line, die + 1 < stripe.length ? die + 1 : 0);
+        Block block = stripe[die];
+        if (block.count == BLOCK_SIZE) {
+            closeBlock(block);
+            block = getFreeBlock(line, hot, die);
+            stripe[die] = block;
+        }
+        return block;
     }
 
     public void run(long totalPages) {
@@ -131,12 +371,19 @@ public class GCSimulator {
 
         for (int i = 1; i <= parts; i++) {
             for (int j = 0; j < progress; j++) {
+                long start = timers.start(Phase.GENERATE);
                 int lpid = gen.generate();
+                timers.stop(Phase.GENERATE, start);
                 write(lpid);
             }
-            LOGGER.error("Simulation {}/{}/{} completed {}/{}. E: {}, write cost: {}, GC cost: {}", param.name,
-                    gen.name(), (double) maxLpid / TOTAL_PAGES, i * progress, totalPages, formatE(), formatWriteCost(),
-                    formatGCCost());
+            recordEpoch();
+            // the costs are formatted only if progress is logged
+            if (i % LOG_EPOCHS == 0 && LOGGER.isInfoEnabled()) {
+                LOGGER.info("Simulation {}/{}/{} completed {}/{}. E: {}, write cost: {}, GC cost: {}, "
+                        + "window GC cost: {}, {}", param.name, gen.name(), (double) maxLpid / this.totalPages,
+                        i * progress, totalPages, formatE(), formatWriteCost(), formatGCCost(),
+                        metrics.windowGCCost(metrics.size() - 1), timers.report(writes));
+            }
             //            if (i == parts / 2) {
             //                prevWrites = writes;
             //                prevMovedBlocks = movedBlocks;
@@ -144,20 +391,71 @@ public class GCSimulator {
             //            }
         }
         writeBuffer.flush(this);
+        LOGGER.info("Simulation {}/{}/{} finished. {}", param.name, gen.name(), (double) maxLpid / this.totalPages,
+                timers.report(writes));
     }
 
     public void delete(int lpid) {
-        long addr = mappingTable[lpid];
-        if (addr != -1) {
-            int blockIndex = getBlockIndex(addr);
-            assert (blocks[blockIndex].state != State.Free);
-            blocks[blockIndex].invalidate(currentTs, getPageIndex(addr), gen.getProb(lpid));
-            mappingTable[lpid] = -1;
+        deleteLpids.clear();
+        deleteLpids.add(lpid);
+        delete(deleteLpids);
+    }
+
+    public void delete(IntArrayList lpids) {
+        if (lpids.isEmpty()) {
+            return;
+        }
+        // buffered writes of the deleted lpids are dropped, and the others stay in their batch
+        writeBuffer.discard(lpids);
+
+        int count = 0;
+        if (deleteAddrs.length < lpids.size()) {
+            deleteAddrs = new long[Math.max(lpids.size(), deleteAddrs.length * 2)];
+        }
+        for (int i = 0; i < lpids.size(); i++) {
+            int lpid = lpids.getInt(i);
+            long addr = mappingTable.get(lpid);
+            if (addr != -1) {
+                deleteAddrs[count++] = addr;
+                mappingTable.set(lpid, -1);
+            }
+        }
+        // group the invalidations by block
+        LongArrays.radixSort(deleteAddrs, 0, count);
+        int from = 0;
+        while (from < count) {
+            int blockIndex = getBlockIndex(deleteAddrs[from]);
+            int to = from + 1;
+            while (to < count && getBlockIndex(deleteAddrs[to]) == blockIndex) {
+                to++;
+            }
+            Block block = blocks[blockIndex];
+            assert (block.state != State.Free);
+            if (block.state == State.Used) {
+                lines.get(block.line).invalidateLpids(to - from);
+            }
+            block.invalidate(currentTs, deleteAddrs, from, to, gen);
+            updateScore(block);
+            from = to;
         }
     }
 
     public void write(int lpid) {
-        long addr = mappingTable[lpid];
+        if (latency != null) {
+            latency.arrive();
+            if (backgroundGCBlocks > 0) {
+                runBackgroundGC();
+            }
+            latency.admit(writeBuffer.size());
+            bufferWrite(lpid);
+            latency.complete();
+        } else {
+            bufferWrite(lpid);
+        }
+    }
+
+    private void bufferWrite(int lpid) {
+        long addr = mappingTable.get(lpid);
         Block prevBlock = null;
         if (addr != -1) {
             prevBlock = blocks[getBlockIndex(addr)];
@@ -168,7 +466,8 @@ public class GCSimulator {
     }
 
     public void writeLpidToBlock(int lpid, long ts) {
-        long addr = mappingTable[lpid];
+        long start = timers.start(Phase.WRITE);
+        long addr = mappingTable.get(lpid);
         Block prevBlock = null;
         if (addr != -1) {
             prevBlock = blocks[getBlockIndex(addr)];
@@ -176,43 +475,56 @@ public class GCSimulator {
                 lines.get(prevBlock.line).invalidateLpid();
             }
             prevBlock.invalidate(currentTs, getPageIndex(addr), gen.getProb(lpid));
+            updateScore(prevBlock);
         }
         int index = blockSelector.selectUser(this, lpid, prevBlock);
-        assert prevBlock == null || index == prevBlock.line || index == prevBlock.line - 1;
-        Block userBlock = userBlocks.get(index);
-        if (userBlock.count == BLOCK_SIZE) {
-            closeBlock(userBlock);
-            userBlock = getFreeBlock(index);
-            userBlocks.set(index, userBlock);
-        }
+        assert !param.multiLog || prevBlock == null || index == prevBlock.line || index == prevBlock.line - 1;
+        Block userBlock = nextOpenBlock(userBlocks, userCursors, index, true);
         userBlock.add(lpid, ts, lines.get(index).ts++, prevBlock != null ? prevBlock.writeTs() : 0, gen.getProb(lpid),
                 ts);
         updateMappingTable(lpid, userBlock.blockIndex, userBlock.count - 1);
+        if (latency != null) {
+            latency.program(geometry.die(userBlock.blockIndex));
+        }
+        timers.stop(Phase.WRITE, start);
         checkGC(userBlock.line);
     }
 
+    // collects one victim per step and checks again whether the dies are idle, so that background GC stops at the
+    // watermark and at most one victim is in progress when the next write arrives
+    private void runBackgroundGC() {
+        while (freeBlocks.size() < backgroundGCBlocks && latency.idle()) {
+            long movedPages = this.movedPages;
+            long movedBlocks = this.movedBlocks;
+            latency.beginIdle();
+            runGC(lastLine, 1);
+            latency.endIdle();
+            backgroundMovedPages += this.movedPages - movedPages;
+            backgroundMovedBlocks += this.movedBlocks - movedBlocks;
+            if (this.movedPages - movedPages >= (this.movedBlocks - movedBlocks) * BLOCK_SIZE) {
+                // the victims were full, so cleaning more would only move pages
+                break;
+            }
+        }
+    }
+
     protected void checkGC(int line) {
-        while (freeBlocks.size() <= GC_TRIGGER_BLOCKS) {
-            runGC(line);
+        lastLine = line;
+        while (freeBlocks.size() <= gcTriggerBlocks) {
+            runGC(line, gcBatchBlocks);
         }
     }
 
-    protected int runGC(int line) {
+    // collects at most maxBlocks victims
+    protected int runGC(int line, int maxBlocks) {
         // select the best GC block
         IntArrayList lpids = new IntArrayList();
-        PriorityQueue<Block> queue = new PriorityQueue<>((b1, b2) -> -Double.compare(b1.score, b2.score));
-
-        for (int i = 0; i < TOTAL_BLOCKS; i++) {
-            Block block = blocks[i];
-            if (block.state == State.Used) {
-                block.score = param.scoreComputer.compute(this, block);
-                queue.add(block);
-                if (queue.size() > param.batchBlocks) {
-                    queue.poll();
-                }
-            }
+        if (events != null) {
+            events.beginBatch();
         }
-        List<Block> blocks = new ArrayList<>(queue);
+        long start = timers.start(Phase.SELECT);
+        List<Block> blocks = scoreHeap != null ? pollMinScoreBlocks(maxBlocks) : scanMinScoreBlocks(maxBlocks);
+        timers.stop(Phase.SELECT, start);
         if (param.sorter != null) {
             blocks.sort(param.sorter);
             if (gcReversed) {
@@ -223,10 +535,84 @@ public class GCSimulator {
         for (Block minBlock : blocks) {
             gcBlock(lpids, minBlock);
         }
+        if (param.wearLevelingThreshold > 0) {
+            levelWear(lpids, blocks.size());
+        }
         return -1;
     }
 
+    // static wear leveling. Blocks holding cold data are rarely selected by GC and thus erased less than the
+    // others, so the used block with the fewest erases is collected when the spread exceeds the threshold. Its
+    // pages go to GC blocks, which are the most-worn with wear-aware allocation, and it is reused for hot data.
+    // The spread is checked after every 1/64 of the blocks are erased, since finding the block is a scan
+    private void levelWear(IntArrayList lpids, int erased) {
+        wearLevelingCountdown -= erased;
+        if (wearLevelingCountdown > 0) {
+            return;
+        }
+        wearLevelingCountdown = Math.max(1, totalBlocks / 64);
+        Block coldest = null;
+        boolean[] used = blockArrays.used;
+        for (int i = 0; i < totalBlocks; i++) {
+            if (used[i] && (coldest == null || blocks[i].eraseCount < coldest.eraseCount)) {
+                coldest = blocks[i];
+            }
+        }
+        if (coldest != null && maxEraseCount - coldest.eraseCount > param.wearLevelingThreshold) {
+            assert coldest.state == State.Used;
+            long movedPages = this.movedPages;
+            gcBlock(lpids, coldest);
+            wearLevelingMovedPages += this.movedPages - movedPages;
+            wearLevelingMovedBlocks++;
+        }
+    }
+
+    private List<Block> scanMinScoreBlocks(int maxBlocks) {
+        PriorityQueue<Block> queue = new PriorityQueue<>(VICTIM_ORDER.reversed());
+        param.scoreComputer.computeBatch(this, blockArrays, 0, totalBlocks, scores);
+        boolean[] used = blockArrays.used;
+        for (int i = 0; i < totalBlocks; i++) {
+            if (!used[i] || (queue.size() == maxBlocks && scores[i] >= queue.peek().score)) {
+                continue;
+            }
+            Block block = blocks[i];
+            assert block.state == State.Used;
+            block.score = scores[i];
+            queue.add(block);
+            if (queue.size() > maxBlocks) {
+                queue.poll();
+            }
+        }
+        List<Block> blocks = new ArrayList<>(queue);
+        blocks.sort(VICTIM_ORDER);
+        return blocks;
+    }
+
+    private List<Block> pollMinScoreBlocks(int maxBlocks) {
+        List<Block> blocks = new ArrayList<>(maxBlocks);
+        while (blocks.size() < maxBlocks && !scoreHeap.isEmpty()) {
+            Block block = this.blocks[scoreHeap.top()];
+            assert block.state == State.Used;
+            block.score = -scoreHeap.topKey();
+            scoreHeap.remove(block.blockIndex);
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    private void updateScore(Block block) {
+        if (scoreHeap != null && block.state == State.Used) {
+            scoreHeap.put(block.blockIndex, -param.scoreComputer.compute(this, block));
+        }
+    }
+
     protected void gcBlock(IntArrayList lpids, Block block) {
+        long start = timers.start(Phase.RELOCATE);
+        victims.record(block, currentTs);
+        int victimLine = block.line;
+        int valid = block.count - block.avail;
+        long age = currentTs - block.closedTs;
+        long destLines = 0;
         int i = 0;
         long writeTs = (long) block.writeTs();
         double priorTs = block.priorTs();
@@ -244,39 +630,58 @@ public class GCSimulator {
             }
             if (!lpids.isEmpty()) {
                 int index = this.blockSelector.selectGC(this, lpids, block);
-                Block gcBlock = gcBlocks.get(index);
+                if (events != null) {
+                    // the log records the destination lines as a bit mask
+                    Preconditions.checkState(index < GCEventLog.MAX_LINES,
+                            "The GC event log supports at most %s lines", GCEventLog.MAX_LINES);
+                    destLines |= 1L << index;
+                }
                 // process lpids
                 int count = lpids.size();
                 for (int j = 0; j < count; j++) {
-                    if (gcBlock.count == BLOCK_SIZE) {
-                        closeBlock(gcBlock);
-                        gcBlock = getFreeBlock(index);
-                        gcBlocks.set(index, gcBlock);
-                    }
+                    Block gcBlock = nextOpenBlock(gcBlocks, gcCursors, index, false);
                     movedPages++;
                     int lpid = lpids.getInt(j);
                     gcBlock.add(lpid, writeTs, index == block.line ? lineTs : 0, priorTs, gen.getProb(lpid),
                             block.newestTs);
                     updateMappingTable(lpid, gcBlock.blockIndex, gcBlock.count - 1);
+                    if (latency != null) {
+                        latency.move(geometry.die(block.blockIndex), geometry.die(gcBlock.blockIndex));
+                    }
                 }
             }
         }
+        if (scoreHeap != null) {
+            scoreHeap.remove(block.blockIndex);
+        }
+        if (latency != null) {
+            latency.erase(geometry.die(block.blockIndex));
+        }
         block.reset();
         block.state = State.Free;
-        freeBlocks.addLast(block);
+        block.eraseCount++;
+        maxEraseCount = Math.max(maxEraseCount, block.eraseCount);
+        freeBlocks.add(block);
         usedBlocks--;
         movedBlocks++;
+        if (events != null) {
+            events.victim(currentTs, block.blockIndex, victimLine, valid, age, destLines);
+        }
+        timers.stop(Phase.RELOCATE, start);
     }
 
     protected void closeBlock(Block block) {
         assert block.state == State.Open;
-        block.state = State.Used;
-        block.closedTs = currentTs;
+        block.close(currentTs);
+        updateScore(block);
     }
 
-    public Block getFreeBlock(int line) {
-        Block block = freeBlocks.pollFirst();
-        assert (block != null && line >= 0);
+    // a free block on the given die if it has one
+    public Block getFreeBlock(int line, boolean hot, int die) {
+        Block block = freeBlocks.poll(hot, die);
+        Preconditions.checkState(block != null, "No free block, the device is too small for the open blocks of %s "
+                + "lines on %s dies", lines.size(), geometry.dies);
+        assert (line >= 0);
         assert (block.state == State.Free);
         block.reset();
         block.state = State.Open;
@@ -285,11 +690,20 @@ public class GCSimulator {
         return block;
     }
 
+    // scales a block count of the full-size device to this device
+    public int scaleBlocks(int blocks) {
+        return Math.max(1, (int) Math.round((double) blocks * totalBlocks / TOTAL_BLOCKS));
+    }
+
+    public void recordEpoch() {
+        metrics.record(this);
+    }
+
     private void updateMappingTable(int lpid, int blockIndex, int pageIndex) {
         assert (blockIndex >= 0);
         assert (pageIndex >= 0);
         long index = (((long) blockIndex) << 32) + pageIndex;
-        mappingTable[lpid] = index;
+        mappingTable.set(lpid, index);
     }
 
     private int getBlockIndex(long addr) {
@@ -300,25 +714,75 @@ public class GCSimulator {
         return (int) addr;
     }
 
-    public String formatGCCost() {
+    public double getGCCost() {
         long movedPages = this.movedPages - prevMovedPages;
         long writes = this.writes - prevWrites;
 
-        return String.format("%.3f", (double) movedPages / Math.max(1, writes));
+        return (double) movedPages / Math.max(1, writes);
     }
 
-    public String formatE() {
+    public double getE() {
         long movedPages = this.movedPages - prevMovedPages;
         long movedBlocks = this.movedBlocks - prevMovedBlocks;
 
-        return String.format("%.3f", 1 - (double) movedPages / BLOCK_SIZE / movedBlocks);
+        return 1 - (double) movedPages / BLOCK_SIZE / movedBlocks;
     }
 
-    public String formatWriteCost() {
-        long movedPages = this.movedPages - prevMovedPages;
-        long movedBlocks = this.movedBlocks - prevMovedBlocks;
+    public double getWriteCost() {
+        return 2.0 / getE();
+    }
+
+    public String formatGCCost() {
+        return String.format("%.3f", getGCCost());
+    }
 
-        return String.format("%.3f", 2.0 / (1 - (double) movedPages / BLOCK_SIZE / movedBlocks));
+    public String formatE() {
+        return String.format("%.3f", getE());
+    }
+
+    // the spread of the erase counts over all blocks since the simulator was created, and the share of the GC
+    // cost spent on static wear leveling
+    public String formatWear() {
+        int min = Integer.MAX_VALUE;
+        long sum = 0;
+        for (Block block : blocks) {
+            min = Math.min(min, block.eraseCount);
+            sum += block.eraseCount;
+        }
+        double mean = (double) sum / totalBlocks;
+        double variance = 0;
+        for (Block block : blocks) {
+            variance += (block.eraseCount - mean) * (block.eraseCount - mean);
+        }
+        return String.format("erase count min: %d, mean: %.1f, max: %d, stddev: %.2f, max/mean: %.3f, "
+                + "wear leveling GC cost: %.4f, blocks: %d", min, mean, maxEraseCount,
+                Math.sqrt(variance / totalBlocks), maxEraseCount / Math.max(1, mean),
+                (double) wearLevelingMovedPages / Math.max(1, writes), wearLevelingMovedBlocks);
+    }
+
+    // the number of blocks with each erase count, to estimate the lifetime from the endurance of the blocks
+    public void writeEraseCounts(File file) throws IOException {
+        int[] counts = new int[totalBlocks];
+        for (int i = 0; i < totalBlocks; i++) {
+            counts[i] = blocks[i].eraseCount;
+        }
+        Arrays.sort(counts);
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("erase count,blocks");
+            int i = 0;
+            while (i < totalBlocks) {
+                int j = i + 1;
+                while (j < totalBlocks && counts[j] == counts[i]) {
+                    j++;
+                }
+                writer.println(counts[i] + "," + (j - i));
+                i = j;
+            }
+        }
+    }
+
+    public String formatWriteCost() {
+        return String.format("%.3f", getWriteCost());
     }
 
     public void resetStats() {
@@ -328,15 +792,23 @@ public class GCSimulator {
         this.prevMovedPages = 0;
         this.writes = 0;
         this.prevWrites = 0;
+        this.backgroundMovedPages = 0;
+        this.backgroundMovedBlocks = 0;
+        this.wearLevelingMovedPages = 0;
+        this.wearLevelingMovedBlocks = 0;
+        this.metrics.clear();
+        this.victims.clear();
+        this.writeBuffer.clearStats();
+        this.timers.clear(writes);
+        if (latency != null) {
+            latency.clear();
+        }
     }
 
     public void resetTimestamps() {
         this.currentTs = 0;
-        for (int i = 0; i < TOTAL_BLOCKS; i++) {
-            blocks[i].writeTsSum = 0;
-            blocks[i].priorTsSum = 0;
-            blocks[i].newestTs = 0;
-            blocks[i].lineTsSum = 0;
+        for (int i = 0; i < totalBlocks; i++) {
+            blocks[i].resetTimestamps();
         }
     }
 
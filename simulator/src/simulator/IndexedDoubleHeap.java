@@ -0,0 +1,146 @@
+package simulator;
+
+import java.util.Arrays;
+
+// a binary max-heap of int ids keyed by doubles, which supports updating or removing an id in O(log n). Ties go to
+// the lower id, so that the order does not depend on the history of updates
+class IndexedDoubleHeap {
+    private static final int ABSENT = -1;
+
+    // heap position -> id
+    private int[] heap;
+    // id -> heap position
+    private int[] positions;
+    // id -> key
+    private double[] keys;
+    private int size = 0;
+
+    public IndexedDoubleHeap(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return id < positions.length && positions[id] != ABSENT;
+    }
+
+    public int top() {
+        assert size > 0;
+        return heap[0];
+    }
+
+    public double topKey() {
+        assert size > 0;
+        return keys[heap[0]];
+    }
+
+    public double key(int id) {
+        assert contains(id);
+        return keys[id];
+    }
+
+    // adds the id or updates its key
+    public void put(int id, double key) {
+        if (contains(id)) {
+            double oldKey = keys[id];
+            keys[id] = key;
+            if (key > oldKey) {
+                siftUp(positions[id]);
+            } else if (key < oldKey) {
+                siftDown(positions[id]);
+            }
+            return;
+        }
+        if (id >= positions.length) {
+            int capacity = Math.max(id + 1, positions.length * 2);
+            int oldCapacity = positions.length;
+            positions = Arrays.copyOf(positions, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            Arrays.fill(positions, oldCapacity, capacity, ABSENT);
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(size * 2, 1));
+        }
+        keys[id] = key;
+        heap[size] = id;
+        positions[id] = size;
+        siftUp(size++);
+    }
+
+    public void remove(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        int pos = positions[id];
+        positions[id] = ABSENT;
+        size--;
+        if (pos == size) {
+            return;
+        }
+        int last = heap[size];
+        heap[pos] = last;
+        positions[last] = pos;
+        siftUp(pos);
+        siftDown(positions[last]);
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentId = heap[parent];
+            if (!above(id, parentId)) {
+                break;
+            }
+            heap[pos] = parentId;
+            positions[parentId] = pos;
+            pos = parent;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && above(heap[right], heap[child])) {
+                child = right;
+            }
+            int childId = heap[child];
+            if (!above(childId, id)) {
+                break;
+            }
+            heap[pos] = childId;
+            positions[childId] = pos;
+            pos = child;
+        }
+        heap[pos] = id;
+        positions[id] = pos;
+    }
+
+    private boolean above(int id1, int id2) {
+        return keys[id1] > keys[id2] || (keys[id1] == keys[id2] && id1 < id2);
+    }
+
+}
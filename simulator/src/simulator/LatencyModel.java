@@ -0,0 +1,325 @@
+package simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+
+// a histogram of non-negative values with buckets of 1/32 of a power of two, i.e., a relative error of 3%
+class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total = 0;
+    private long max = 0;
+
+    public void record(long value) {
+        counts[index(value)]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    // the upper bound of the bucket containing the given percentile, in [0, 1]
+    public long percentile(double p) {
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i + 1 < BUCKETS ? Math.min(max, lowerBound(i + 1) - 1) : max;
+            }
+        }
+        return max;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+
+    // one row per non-empty bucket with its lower bound
+    public void write(PrintWriter writer, double unit) {
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                writer.println(lowerBound(i) / unit + "," + counts[i]);
+            }
+        }
+    }
+
+}
+
+// the latency of user writes on a device whose dies each run one operation at a time. The simulator reports every
+// page program of a user write and every page move and block erase of GC. An operation starts when its die is free,
+// and a moved page is programmed after it is read. Pages are transferred between the controller and a die over the
+// channel of the die, which carries one transfer at a time, so the dies of a channel contend for it. The GC
+// triggered by a write runs synchronously, so the write completes when all operations it caused complete, while GC
+// on the other dies overlaps with its own program.
+// Writes arrive either open-loop, at exponentially distributed intervals, or closed-loop, i.e., each write is issued
+// when the previous one completes. The traces have no timestamps, so only these synthetic arrivals are modeled.
+// Times are in nanoseconds.
+// With a write buffer, a write completes when it is inserted into the buffer, and flushes drain in the background.
+// A flushed page holds its slot until it is programmed, so a write waits only when the buffer is full of pages that
+// are not programmed yet, e.g., because GC holds their dies.
+public class LatencyModel {
+    private static final double NANOS_PER_MICRO = 1000;
+    private static final double NANOS_PER_SECOND = 1000 * 1000 * 1000;
+
+    final long programNanos;
+    final long readNanos;
+    final long eraseNanos;
+    final long transferNanos;
+    // writes per second, or 0 for a closed loop
+    final double arrivalRate;
+    private final Random random;
+
+    public final LatencyHistogram histogram = new LatencyHistogram();
+
+    // per die: the time when it completes its operations, whether the last of them is GC work, when that GC work
+    // started, and its busy time
+    private final long[] busyUntil;
+    private final boolean[] busyWithGC;
+    private final long[] gcSince;
+    private final long[] busyNanos;
+    // per channel: the time when it completes its transfers
+    private final long[] channelBusyUntil;
+    private final DeviceGeometry geometry;
+
+    // arrival time of the current write, the earliest start of the operations being issued, and the completion of
+    // the current and of the previous write
+    long arrival = 0;
+    private long issue = 0;
+    private long completion = 0;
+    private long lastCompletion = 0;
+    // whether operations are issued by background GC and not by the current write
+    private boolean idle = false;
+    // the last read of the current victim, after which it can be erased
+    private long victimRead = 0;
+    // slots of the write buffer, 0 if writes are not buffered, and when the flushed pages are programmed
+    private int bufferCapacity = 0;
+    private final LongHeapPriorityQueue releases = new LongHeapPriorityQueue();
+
+    private long startTime = 0;
+    private long writes = 0;
+    // user page programs that waited for GC on their die, and how long
+    private long programs = 0;
+    private long interferedPrograms = 0;
+    private long interferenceNanos = 0;
+
+    public LatencyModel(double programMicros, double readMicros, double eraseMicros, double transferMicros,
+            double arrivalRate, DeviceGeometry geometry, long seed) {
+        this.programNanos = (long) (programMicros * NANOS_PER_MICRO);
+        this.readNanos = (long) (readMicros * NANOS_PER_MICRO);
+        this.eraseNanos = (long) (eraseMicros * NANOS_PER_MICRO);
+        this.transferNanos = (long) (transferMicros * NANOS_PER_MICRO);
+        this.arrivalRate = arrivalRate;
+        this.random = new Random(seed);
+        this.geometry = geometry;
+        this.busyUntil = new long[geometry.dies];
+        this.busyWithGC = new boolean[geometry.dies];
+        this.gcSince = new long[geometry.dies];
+        this.busyNanos = new long[geometry.dies];
+        this.channelBusyUntil = new long[geometry.channels];
+    }
+
+    // -Dlatency.program, -Dlatency.read, -Dlatency.erase and -Dlatency.transfer of a page in microseconds and
+    // -Dlatency.rate in writes per second
+    public static LatencyModel fromProperties(DeviceGeometry geometry) {
+        return new LatencyModel(Double.parseDouble(System.getProperty("latency.program", "200")),
+                Double.parseDouble(System.getProperty("latency.read", "50")),
+                Double.parseDouble(System.getProperty("latency.erase", "2000")),
+                Double.parseDouble(System.getProperty("latency.transfer", "10")),
+                Double.parseDouble(System.getProperty("latency.rate", "0")), geometry, 0);
+    }
+
+    // the settings that change when the dies are idle, and thus the work of background GC
+    public String key() {
+        return "latency-" + programNanos + "-" + readNanos + "-" + eraseNanos + "-" + transferNanos + "-"
+                + arrivalRate;
+    }
+
+    public void setBufferCapacity(int capacity) {
+        this.bufferCapacity = capacity;
+    }
+
+    public void arrive() {
+        if (arrivalRate > 0) {
+            arrival += (long) (-Math.log(1 - random.nextDouble()) / arrivalRate * NANOS_PER_SECOND);
+        } else {
+            arrival = Math.max(arrival, lastCompletion);
+        }
+        issue = arrival;
+        completion = arrival;
+    }
+
+    // admits the current write into a buffer holding the given number of writes once a slot is free. The slots of
+    // the flushed pages are freed in the order their programs complete
+    public void admit(int buffered) {
+        if (bufferCapacity == 0) {
+            return;
+        }
+        while (!releases.isEmpty() && releases.firstLong() <= issue) {
+            releases.dequeueLong();
+        }
+        while (!releases.isEmpty() && buffered + releases.size() >= bufferCapacity) {
+            issue = releases.dequeueLong();
+        }
+        completion = issue;
+    }
+
+    // completes the current write
+    public void complete() {
+        histogram.record(completion - arrival);
+        lastCompletion = completion;
+        writes++;
+    }
+
+    // whether all dies finish their operations before the current write arrives
+    public boolean idle() {
+        return deviceBusyUntil() < arrival;
+    }
+
+    // issues the following GC operations when all dies are idle, until endIdle. An operation cannot be preempted, so
+    // one that runs past the arrival of the current write delays it if the write needs the same die
+    public void beginIdle() {
+        idle = true;
+        issue = deviceBusyUntil();
+    }
+
+    public void endIdle() {
+        idle = false;
+        issue = arrival;
+    }
+
+    public void program(int die) {
+        schedule(die, transfer(die, issue), programNanos, false);
+    }
+
+    // the page is read out of its die and transferred to the controller, and then transferred to the other die
+    public void move(int fromDie, int toDie) {
+        long read = transfer(fromDie, schedule(fromDie, issue, readNanos, true));
+        victimRead = Math.max(victimRead, read);
+        schedule(toDie, transfer(toDie, read), programNanos, true);
+    }
+
+    // transfers a page over the channel of the die and returns when it is transferred
+    private long transfer(int die, long after) {
+        int channel = geometry.channel(die);
+        long end = Math.max(after, channelBusyUntil[channel]) + transferNanos;
+        channelBusyUntil[channel] = end;
+        return end;
+    }
+
+    public void erase(int die) {
+        schedule(die, Math.max(issue, victimRead), eraseNanos, true);
+        victimRead = 0;
+    }
+
+    private long schedule(int die, long after, long nanos, boolean gc) {
+        long start = Math.max(after, busyUntil[die]);
+        if (!gc) {
+            programs++;
+            // only the wait for GC counts, and not for the programs queued before it, e.g., of the same flush
+            long gcStart = Math.max(after, gcSince[die]);
+            if (start > gcStart && busyWithGC[die]) {
+                interferedPrograms++;
+                interferenceNanos += start - gcStart;
+            }
+        } else if (!busyWithGC[die]) {
+            gcSince[die] = start;
+        }
+        long end = start + nanos;
+        busyUntil[die] = end;
+        busyWithGC[die] = gc;
+        busyNanos[die] += nanos;
+        if (bufferCapacity > 0) {
+            if (!gc) {
+                releases.enqueue(end);
+            }
+        } else if (!idle) {
+            completion = Math.max(completion, end);
+        }
+        return end;
+    }
+
+    private long deviceBusyUntil() {
+        long time = 0;
+        for (long until : busyUntil) {
+            time = Math.max(time, until);
+        }
+        return time;
+    }
+
+    public void clear() {
+        histogram.clear();
+        startTime = Math.max(arrival, deviceBusyUntil());
+        writes = 0;
+        programs = 0;
+        interferedPrograms = 0;
+        interferenceNanos = 0;
+        Arrays.fill(busyNanos, 0);
+    }
+
+    // user writes per second of modeled time
+    public double throughput() {
+        long elapsed = Math.max(lastCompletion, deviceBusyUntil()) - startTime;
+        return elapsed > 0 ? writes * NANOS_PER_SECOND / elapsed : 0;
+    }
+
+    // the average share of the modeled time the dies are busy
+    public double utilization() {
+        long elapsed = Math.max(lastCompletion, deviceBusyUntil()) - startTime;
+        long busy = 0;
+        for (long nanos : busyNanos) {
+            busy += nanos;
+        }
+        return elapsed > 0 ? (double) busy / busyNanos.length / elapsed : 0;
+    }
+
+    public String summary() {
+        return String.format("write latency p50: %.0fus, p99: %.0fus, p99.9: %.0fus, max: %.0fus, "
+                + "throughput: %.0f writes/s, die utilization: %.3f, programs delayed by GC: %.3f, "
+                + "mean GC delay: %.0fus",
+                histogram.percentile(0.5) / NANOS_PER_MICRO, histogram.percentile(0.99) / NANOS_PER_MICRO,
+                histogram.percentile(0.999) / NANOS_PER_MICRO, histogram.max() / NANOS_PER_MICRO, throughput(),
+                utilization(), (double) interferedPrograms / Math.max(1, programs),
+                interferenceNanos / NANOS_PER_MICRO / Math.max(1, interferedPrograms));
+    }
+
+    public void write(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("latency us,writes");
+            histogram.write(writer, NANOS_PER_MICRO);
+        }
+    }
+
+}
@@ -20,11 +20,22 @@ interface LpidGenerator {
     public double getMinProb();
 
     public double getMaxProb();
+
+    // returns a generator of the same distribution with its own random state, sharing the read-only tables
+    public LpidGenerator fork();
+
+    // restarts the random state from a seed, so that replicas of a run are reproducible
+    public void reseed(long seed);
 }
 
 @FunctionalInterface
 interface LpidGeneratorFactory {
     LpidGenerator create(int maxLpid);
+
+    // identifies the distribution and its parameters, see Param.key
+    public default String key() {
+        return getClass().getSimpleName();
+    }
 }
 
 class UniformLpidGenerator implements LpidGenerator {
@@ -73,6 +84,16 @@ class UniformLpidGenerator implements LpidGenerator {
         return "uniform";
     }
 
+    @Override
+    public LpidGenerator fork() {
+        return new UniformLpidGenerator(maxLpid);
+    }
+
+    @Override
+    public void reseed(long seed) {
+        rand.setSeed(seed);
+    }
+
     @Override
     public int maxLpid() {
         return maxLpid;
@@ -84,7 +105,7 @@ class TPCCLpidGenerator implements LpidGenerator {
     public static class TPCCLpidGeneratorFactory implements LpidGeneratorFactory {
         @Override
         public LpidGenerator create(int maxLpid) {
-            return new TPCCLpidGenerator(GCSimulator.TOTAL_PAGES);
+            return new TPCCLpidGenerator(maxLpid);
         }
     }
 
@@ -141,6 +162,17 @@ class TPCCLpidGenerator implements LpidGenerator {
         return "tpcc";
     }
 
+    @Override
+    public LpidGenerator fork() {
+        // probabilities are read-only once computed, and it does not generate lpids
+        return this;
+    }
+
+    // the lpids come from a trace and the probabilities are counted from it, so there is no random state
+    @Override
+    public void reseed(long seed) {
+    }
+
     @Override
     public int maxLpid() {
         return freqs.length - 1;
@@ -164,6 +196,11 @@ class ZipfLpidGenerator implements LpidGenerator {
         public LpidGenerator create(int maxLpid) {
             return new ZipfLpidGenerator(maxLpid, exp);
         }
+
+        @Override
+        public String key() {
+            return "ZipfLpidGeneratorFactory-" + exp;
+        }
     }
 
     private final IntegerDistribution rand;
@@ -172,6 +209,13 @@ class ZipfLpidGenerator implements LpidGenerator {
     private final double exp;
     private final int maxLpid;
 
+    private ZipfLpidGenerator(ZipfLpidGenerator other) {
+        this.exp = other.exp;
+        this.maxLpid = other.maxLpid;
+        this.probs = other.probs;
+        this.rand = exp == 0 ? new UniformIntegerDistribution(1, maxLpid) : new ZipfDistribution(maxLpid, exp);
+    }
+
     public ZipfLpidGenerator(int maxLpid, double exp) {
         this.exp = exp;
         this.maxLpid = maxLpid;
@@ -205,6 +249,16 @@ class ZipfLpidGenerator implements LpidGenerator {
         return "zipf-" + exp;
     }
 
+    @Override
+    public LpidGenerator fork() {
+        return new ZipfLpidGenerator(this);
+    }
+
+    @Override
+    public void reseed(long seed) {
+        rand.reseedRandomGenerator(seed);
+    }
+
     @Override
     public int generate() {
         return rand.sample();
@@ -249,6 +303,11 @@ class HotColdLpidGenerator implements LpidGenerator {
             return new HotColdLpidGenerator(maxLpid, hotSkew);
         }
 
+        @Override
+        public String key() {
+            return "HotColdLpidGeneratorFactory-" + hotSkew;
+        }
+
         @Override
         public String toString() {
             return "hot-cold:" + hotSkew + "-" + (100 - hotSkew);
@@ -285,6 +344,16 @@ class HotColdLpidGenerator implements LpidGenerator {
         return maxLpid;
     }
 
+    @Override
+    public LpidGenerator fork() {
+        return new HotColdLpidGenerator(maxLpid, hotSkew);
+    }
+
+    @Override
+    public void reseed(long seed) {
+        rand.setSeed(seed);
+    }
+
     @Override
     public int generate() {
         int sample = rand.nextInt(100);
@@ -0,0 +1,50 @@
+package simulator;
+
+import java.util.Arrays;
+
+// lpid -> physical address stored in fixed-size chunks. A fork shares all chunks with its parent and either
+// side copies a chunk on its first write after the fork, so forked simulators only pay for the pages they touch.
+class MappingTable {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long[][] chunks;
+    // whether a chunk is private to this table and can be written in place
+    private final boolean[] owned;
+
+    public MappingTable(int size) {
+        int numChunks = (size + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+        this.chunks = new long[numChunks][];
+        this.owned = new boolean[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            chunks[i] = new long[Math.min(CHUNK_SIZE, size - (i << CHUNK_BITS))];
+            Arrays.fill(chunks[i], -1);
+            owned[i] = true;
+        }
+    }
+
+    private MappingTable(long[][] chunks) {
+        this.chunks = chunks;
+        this.owned = new boolean[chunks.length];
+    }
+
+    public long get(int lpid) {
+        return chunks[lpid >>> CHUNK_BITS][lpid & CHUNK_MASK];
+    }
+
+    public void set(int lpid, long addr) {
+        int chunk = lpid >>> CHUNK_BITS;
+        if (!owned[chunk]) {
+            chunks[chunk] = chunks[chunk].clone();
+            owned[chunk] = true;
+        }
+        chunks[chunk][lpid & CHUNK_MASK] = addr;
+    }
+
+    public MappingTable fork() {
+        Arrays.fill(owned, false);
+        return new MappingTable(chunks.clone());
+    }
+
+}
@@ -0,0 +1,183 @@
+package simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+// per-epoch counters of a simulation kept in preallocated ring buffers, so that recording an epoch does not
+// allocate. Counters are cumulative since the last reset and windowed costs are derived from consecutive epochs.
+// Once the buffers are full the oldest epochs are overwritten.
+public class MetricsRecorder {
+    public static final int DEFAULT_CAPACITY = 1024;
+    // lines beyond this are not tracked
+    public static final int MAX_LINES = 64;
+
+    private final int capacity;
+    private final long[] writes;
+    private final long[] movedPages;
+    private final long[] movedBlocks;
+    private final int[] freeBlocks;
+    private final int[] lines;
+    // epoch -> line -> non-free blocks
+    private final int[][] lineBlocks;
+    private final double[] windowGCCost;
+
+    // total number of recorded epochs, including the overwritten ones
+    private long epochs = 0;
+    private long lastWrites = 0;
+    private long lastMovedPages = 0;
+
+    public MetricsRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MetricsRecorder(int capacity) {
+        this.capacity = capacity;
+        this.writes = new long[capacity];
+        this.movedPages = new long[capacity];
+        this.movedBlocks = new long[capacity];
+        this.freeBlocks = new int[capacity];
+        this.lines = new int[capacity];
+        this.lineBlocks = new int[capacity][MAX_LINES];
+        this.windowGCCost = new double[capacity];
+    }
+
+    public void record(GCSimulator sim) {
+        int slot = (int) (epochs % capacity);
+        writes[slot] = sim.writes;
+        movedPages[slot] = sim.movedPages;
+        movedBlocks[slot] = sim.movedBlocks;
+        freeBlocks[slot] = sim.freeBlocks.size();
+        lines[slot] = sim.lines.size();
+        int[] row = lineBlocks[slot];
+        Arrays.fill(row, 0);
+        for (int i = 0; i < sim.totalBlocks; i++) {
+            Block block = sim.blocks[i];
+            if (block.state != Block.State.Free && block.line >= 0 && block.line < MAX_LINES) {
+                row[block.line]++;
+            }
+        }
+        windowGCCost[slot] = (double) (sim.movedPages - lastMovedPages) / Math.max(1, sim.writes - lastWrites);
+        lastWrites = sim.writes;
+        lastMovedPages = sim.movedPages;
+        epochs++;
+    }
+
+    public void clear() {
+        epochs = 0;
+        lastWrites = 0;
+        lastMovedPages = 0;
+    }
+
+    public MetricsRecorder copy() {
+        MetricsRecorder copy = new MetricsRecorder(capacity);
+        System.arraycopy(writes, 0, copy.writes, 0, capacity);
+        System.arraycopy(movedPages, 0, copy.movedPages, 0, capacity);
+        System.arraycopy(movedBlocks, 0, copy.movedBlocks, 0, capacity);
+        System.arraycopy(freeBlocks, 0, copy.freeBlocks, 0, capacity);
+        System.arraycopy(lines, 0, copy.lines, 0, capacity);
+        System.arraycopy(windowGCCost, 0, copy.windowGCCost, 0, capacity);
+        for (int i = 0; i < capacity; i++) {
+            System.arraycopy(lineBlocks[i], 0, copy.lineBlocks[i], 0, MAX_LINES);
+        }
+        copy.epochs = epochs;
+        copy.lastWrites = lastWrites;
+        copy.lastMovedPages = lastMovedPages;
+        return copy;
+    }
+
+    // number of retained epochs
+    public int size() {
+        return (int) Math.min(epochs, capacity);
+    }
+
+    // ring slot of the i-th retained epoch, from the oldest
+    private int slot(int i) {
+        return (int) ((epochs - size() + i) % capacity);
+    }
+
+    public double windowGCCost(int i) {
+        return windowGCCost[slot(i)];
+    }
+
+    // windowed GC cost of the retained epochs in order
+    public double[] gcCostSeries() {
+        double[] series = new double[size()];
+        for (int i = 0; i < series.length; i++) {
+            series[i] = windowGCCost(i);
+        }
+        return series;
+    }
+
+    // writes a .json file as an array of epochs, or any other file as CSV
+    public void write(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file)) {
+            if (file.getName().endsWith(".json")) {
+                writeJson(writer);
+            } else {
+                writeCsv(writer);
+            }
+        }
+    }
+
+    public void writeCsv(PrintWriter writer) {
+        int maxLines = maxLines();
+        writer.print("epoch,writes,moved pages,moved blocks,free blocks,lines,window GC cost");
+        for (int line = 0; line < maxLines; line++) {
+            writer.print(",line " + line + " blocks");
+        }
+        writer.println();
+        for (int i = 0; i < size(); i++) {
+            int slot = slot(i);
+            writer.print(epochs - size() + i);
+            writer.print(',');
+            writer.print(writes[slot]);
+            writer.print(',');
+            writer.print(movedPages[slot]);
+            writer.print(',');
+            writer.print(movedBlocks[slot]);
+            writer.print(',');
+            writer.print(freeBlocks[slot]);
+            writer.print(',');
+            writer.print(lines[slot]);
+            writer.print(',');
+            writer.print(windowGCCost[slot]);
+            for (int line = 0; line < maxLines; line++) {
+                writer.print(',');
+                writer.print(lineBlocks[slot][line]);
+            }
+            writer.println();
+        }
+    }
+
+    public void writeJson(PrintWriter writer) {
+        writer.println("[");
+        for (int i = 0; i < size(); i++) {
+            int slot = slot(i);
+            writer.print(String.format(
+                    "  {\"epoch\": %d, \"writes\": %d, \"movedPages\": %d, \"movedBlocks\": %d, \"freeBlocks\": %d, "
+                            + "\"lines\": %d, \"windowGCCost\": %s, \"lineBlocks\": [",
+                    epochs - size() + i, writes[slot], movedPages[slot], movedBlocks[slot], freeBlocks[slot],
+                    lines[slot], windowGCCost[slot]));
+            int numLines = Math.min(lines[slot], MAX_LINES);
+            for (int line = 0; line < numLines; line++) {
+                if (line > 0) {
+                    writer.print(", ");
+                }
+                writer.print(lineBlocks[slot][line]);
+            }
+            writer.println(i < size() - 1 ? "]}," : "]}");
+        }
+        writer.println("]");
+    }
+
+    private int maxLines() {
+        int maxLines = 0;
+        for (int i = 0; i < size(); i++) {
+            maxLines = Math.max(maxLines, Math.min(lines[slot(i)], MAX_LINES));
+        }
+        return maxLines;
+    }
+
+}
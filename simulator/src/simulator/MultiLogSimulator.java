@@ -5,6 +5,7 @@ import org.apache.logging.log4j.Logger;
 
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import simulator.Block.State;
+import simulator.PhaseTimers.Phase;
 
 public class MultiLogSimulator extends GCSimulator {
 
@@ -14,19 +15,66 @@ public class MultiLogSimulator extends GCSimulator {
 
     private static final double DELTA = 1;
 
+    private final int lineMinBlocks;
+
+    // line -> derivative, and the lines changed since the last GC
+    private final IndexedDoubleHeap derivatives = new IndexedDoubleHeap(MultiLogBlockSelector.MAX_LOG_INDEX + 1);
+    private final IntArrayList dirtyLines = new IntArrayList();
+
     public MultiLogSimulator(Param param, int maxLpid) {
-        super(param, maxLpid);
+        this(param, param.genFactory.create(maxLpid), TOTAL_PAGES);
+    }
+
+    public MultiLogSimulator(Param param, LpidGenerator gen, int totalPages) {
+        super(param, gen, totalPages);
+        this.lineMinBlocks = scaleBlocks(LINE_MIN_BLOCKS);
     }
 
     @Override
     protected void checkGC(int line) {
-        if (freeBlocks.size() <= GC_TRIGGER_BLOCKS) {
-            runGC(line);
+        if (freeBlocks.size() <= gcTriggerBlocks) {
+            runGC(line, 1);
         }
     }
 
+    // multi-log GC always collects one victim
     @Override
-    protected int runGC(int line) {
+    protected int runGC(int line, int maxBlocks) {
+        if (events != null) {
+            events.beginBatch();
+        }
+        return param.globalLineSelection ? runGlobalGC(line) : runLocalGC(line);
+    }
+
+    private int runGlobalGC(int line) {
+        long start = timers.start(Phase.SELECT);
+        for (int i = derivatives.size(); i < lines.size(); i++) {
+            derivatives.put(i, computeDerivative(lines.get(i)));
+        }
+        for (int i = 0; i < dirtyLines.size(); i++) {
+            Line dirty = lines.get(dirtyLines.getInt(i));
+            dirty.dirty = false;
+            derivatives.put(dirty.lineIndex, computeDerivative(dirty));
+        }
+        dirtyLines.clear();
+
+        // if no line is large enough to be selected, fall back to the line being written
+        Line target = derivatives.topKey() > Integer.MIN_VALUE ? lines.get(derivatives.top()) : lines.get(line);
+        timers.stop(Phase.SELECT, start);
+        Block block = target.poll();
+        if (block != null) {
+            assert block.state == State.Used;
+            gcBlock(new IntArrayList(), block);
+        }
+        return target.lineIndex;
+    }
+
+    void lineChanged(Line line) {
+        dirtyLines.add(line.lineIndex);
+    }
+
+    private int runLocalGC(int line) {
+        long start = timers.start(Phase.SELECT);
         double dLine = computeDerivative(lines.get(line));
 
         double dPrev = Integer.MIN_VALUE;
@@ -51,6 +99,7 @@ public class MultiLogSimulator extends GCSimulator {
             LOGGER.error("Invalid line {}, dPrev: {}, dLine: {}, dNext: {}, skip GC ", line, dPrev, dLine, dNext);
             return -1;
         }
+        timers.stop(Phase.SELECT, start);
 
         Block block = target.poll();
         if (block != null) {
@@ -61,7 +110,7 @@ public class MultiLogSimulator extends GCSimulator {
     }
 
     private double computeDerivative(Line line) {
-        if (line.numBlocks() <= LINE_MIN_BLOCKS) {
+        if (line.numBlocks() <= lineMinBlocks) {
             return Integer.MIN_VALUE;
         }
         return computeDerivativeNumerical(line);
@@ -70,7 +119,7 @@ public class MultiLogSimulator extends GCSimulator {
     private double computeDerivativeAnalytical(Line line) {
         double s = line.sizeRatio(this);
         double z = 1 + line.getBeta(this) / s;
-        double W = -Math.pow(Math.E, -0.9 * (z - 1));
+        double W = -Math.exp(-0.9 * (z - 1));
         MultiLogBlockSelector selector = (MultiLogBlockSelector) blockSelector;
 
         double freq = 1.0 / selector.getInterval(line.lineIndex);
@@ -93,7 +142,7 @@ public class MultiLogSimulator extends GCSimulator {
     }
 
     private double cleanCost(Line line, double a) {
-        double pgc = Math.min(Math.pow(Math.E, -0.9 * a) / (1 + a), 0.99999);
+        double pgc = Math.min(Math.exp(-0.9 * a) / (1 + a), 0.99999);
         double updateFrequency = blockSelector.updateFreq(line.lineIndex);
         return updateFrequency * pgc / (1 - pgc);
 
@@ -0,0 +1,97 @@
+package simulator;
+
+import java.util.Random;
+
+// sampled timers of the simulator phases and its write throughput. A phase is timed only on about every
+// sampleInterval-th call and its total time is extrapolated from the sampled calls, so that System.nanoTime
+// does not dominate the cheap per-write phases. The intervals between samples are random, since a fixed interval
+// would hit the same page offsets of every block and thus always or never include opening a new block.
+public class PhaseTimers {
+    public enum Phase {
+        // lpid generation
+        GENERATE(64),
+        // writeLpidToBlock without GC
+        WRITE(64),
+        // victim selection in runGC
+        SELECT(1),
+        // relocation of the valid pages of a victim in gcBlock
+        RELOCATE(1);
+
+        // the mean number of calls between samples
+        final int sampleInterval;
+
+        Phase(int sampleInterval) {
+            this.sampleInterval = sampleInterval;
+        }
+    }
+
+    private static final int PHASES = Phase.values().length;
+    private static final double NANOS_PER_MILLI = 1000 * 1000;
+
+    private final long[] calls = new long[PHASES];
+    private final long[] sampledCalls = new long[PHASES];
+    private final long[] sampledNanos = new long[PHASES];
+    private final long[] nextSample = new long[PHASES];
+    private final Random random = new Random(0);
+
+    private long startNanos = System.nanoTime();
+    private long startWrites = 0;
+    private long windowNanos = startNanos;
+    private long windowWrites = 0;
+
+    // returns the start time if this call is sampled, or -1
+    public long start(Phase phase) {
+        int i = phase.ordinal();
+        if (calls[i]++ != nextSample[i]) {
+            return -1;
+        }
+        // uniform in [1, 2 * sampleInterval - 1]
+        nextSample[i] += phase.sampleInterval > 1 ? 1 + random.nextInt(2 * phase.sampleInterval - 1) : 1;
+        return System.nanoTime();
+    }
+
+    public void stop(Phase phase, long start) {
+        if (start >= 0) {
+            sampledNanos[phase.ordinal()] += System.nanoTime() - start;
+            sampledCalls[phase.ordinal()]++;
+        }
+    }
+
+    public void clear(long writes) {
+        for (int i = 0; i < PHASES; i++) {
+            calls[i] = 0;
+            sampledCalls[i] = 0;
+            sampledNanos[i] = 0;
+            nextSample[i] = 0;
+        }
+        startNanos = System.nanoTime();
+        startWrites = writes;
+        windowNanos = startNanos;
+        windowWrites = writes;
+    }
+
+    public double estimatedMillis(Phase phase) {
+        int i = phase.ordinal();
+        if (sampledCalls[i] == 0) {
+            return 0;
+        }
+        return (double) sampledNanos[i] / sampledCalls[i] * calls[i] / NANOS_PER_MILLI;
+    }
+
+    // throughput since the last report and since the last clear, and the estimated time of each phase
+    public String report(long writes) {
+        long now = System.nanoTime();
+        double windowRate = (writes - windowWrites) / Math.max(1e-9, (now - windowNanos) / 1e9);
+        double totalRate = (writes - startWrites) / Math.max(1e-9, (now - startNanos) / 1e9);
+        windowNanos = now;
+        windowWrites = writes;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("writes/s: %.0f (total %.0f), elapsed: %.0f ms", windowRate, totalRate,
+                (now - startNanos) / NANOS_PER_MILLI));
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format(", %s: %.0f ms", phase.name().toLowerCase(), estimatedMillis(phase)));
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,131 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.Preconditions;
+
+import simulator.TPCCLpidGenerator.TPCCLpidGeneratorFactory;
+
+class Replica {
+    final double E;
+    final double writeCost;
+    final double gcCost;
+    final double[] gcCostSeries;
+
+    Replica(GCSimulator sim) {
+        this.E = sim.getE();
+        this.writeCost = sim.getWriteCost();
+        this.gcCost = sim.getGCCost();
+        this.gcCostSeries = sim.metrics.gcCostSeries();
+    }
+}
+
+// runs seeded replicas of one cell in parallel until the confidence interval of the GC cost is narrower than a
+// target, so that replicas are spent on the cells with high variance. Replica i uses seed i in every cell, so that
+// all policies see the same lpid sequences and their differences are not blurred by the sequences themselves.
+// Each replica is admitted only when it fits into the memory budget, as in SweepRunner.
+class ReplicatedRun implements Callable<Result> {
+    private static final Logger LOGGER = LogManager.getLogger(ReplicatedRun.class);
+
+    private final ExecutorService executor;
+    private final Semaphore memory;
+    private final int permits;
+    private final Param param;
+    private final double skew;
+    private final double fillFactor;
+    private final double sampleRate;
+    private final int minReplicas;
+    private final int maxReplicas;
+    // relative half width of the confidence interval of the GC cost
+    private final double targetHalfWidth;
+
+    public ReplicatedRun(ExecutorService executor, Semaphore memory, int permits, Param param, double skew,
+            double fillFactor, double sampleRate, int minReplicas, int maxReplicas, double targetHalfWidth) {
+        Preconditions.checkArgument(!(param.genFactory instanceof TPCCLpidGeneratorFactory),
+                "TPCC lpids come from a trace, so its replicas would not be independent");
+        this.executor = executor;
+        this.memory = memory;
+        this.permits = permits;
+        this.param = param;
+        this.skew = skew;
+        this.fillFactor = fillFactor;
+        this.sampleRate = sampleRate;
+        this.minReplicas = Math.max(2, minReplicas);
+        this.maxReplicas = Math.max(this.minReplicas, maxReplicas);
+        this.targetHalfWidth = targetHalfWidth;
+    }
+
+    @Override
+    public Result call() throws Exception {
+        CompletionService<Replica> replicas = new ExecutorCompletionService<>(executor);
+        double[] E = new double[maxReplicas];
+        double[] writeCosts = new double[maxReplicas];
+        double[] gcCosts = new double[maxReplicas];
+        double[] gcCostSeries = null;
+        int submitted = 0;
+        int completed = 0;
+        for (; submitted < minReplicas; submitted++) {
+            submit(replicas, submitted);
+        }
+        // replicas already running when the interval is narrow enough are still counted
+        while (completed < submitted) {
+            Replica replica = replicas.take().get();
+            E[completed] = replica.E;
+            writeCosts[completed] = replica.writeCost;
+            gcCosts[completed] = replica.gcCost;
+            gcCostSeries = addSeries(gcCostSeries, replica.gcCostSeries);
+            completed++;
+            Estimate gcCost = Estimate.of(gcCosts, 0, completed);
+            LOGGER.error("Replica {}/{} of {}/{}/{}: GC cost {}", completed, submitted, param.name, skew, fillFactor,
+                    gcCost);
+            if (submitted < maxReplicas && (completed < minReplicas || gcCost.relativeHalfWidth() > targetHalfWidth)) {
+                submit(replicas, submitted++);
+            }
+        }
+        for (int i = 0; i < gcCostSeries.length; i++) {
+            gcCostSeries[i] /= completed;
+        }
+        Estimate gcCost = Estimate.of(gcCosts, 0, completed);
+        return new Result(fillFactor, skew, Estimate.of(writeCosts, 0, completed).toString(), gcCost.toString(),
+                Estimate.of(E, 0, completed).toString(), String.format("%.3f", gcCost.halfWidth), gcCostSeries, "");
+    }
+
+    private void submit(CompletionService<Replica> replicas, int seed) throws InterruptedException {
+        memory.acquire(permits);
+        try {
+            replicas.submit(() -> {
+                try {
+                    GCSimulator sim = GCExperiment.createLoaded(param, fillFactor, sampleRate, seed);
+                    GCExperiment.simulate(sim, skew, fillFactor, "-replica-" + seed);
+                    return new Replica(sim);
+                } finally {
+                    memory.release(permits);
+                }
+            });
+        } catch (RuntimeException e) {
+            memory.release(permits);
+            throw e;
+        }
+    }
+
+    // element-wise sum, truncated to the shorter series
+    static double[] addSeries(double[] sum, double[] series) {
+        if (sum == null) {
+            return series.clone();
+        }
+        double[] result = Arrays.copyOf(sum, Math.min(sum.length, series.length));
+        for (int i = 0; i < result.length; i++) {
+            result[i] += series[i];
+        }
+        return result;
+    }
+
+}
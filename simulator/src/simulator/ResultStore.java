@@ -0,0 +1,142 @@
+package simulator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// an append-only file of finished experiment cells, one line per cell keyed by its parameters and CODE_VERSION.
+// Each result is synced to disk as soon as it is appended, so an interrupted sweep can be resumed by skipping
+// the cells already in the store. A line ends with the CRC32 of the rest of it, and lines cut off by a crash or
+// otherwise corrupted are dropped on load, so that their cells run again.
+public class ResultStore {
+    private static final Logger LOGGER = LogManager.getLogger(ResultStore.class);
+
+    // bump whenever a change to the simulator changes its results, so that stale cells are recomputed
+    public static final int CODE_VERSION = 4;
+
+    private static final String SEPARATOR = "\t";
+
+    private final File file;
+    private final Map<String, Result> results = new HashMap<>();
+    // whether the file ends with a line cut off by a crash, which the next append must terminate
+    private boolean truncated = false;
+
+    public ResultStore(File file) throws IOException {
+        this.file = file;
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Result result = parse(line);
+                    if (result == null) {
+                        LOGGER.error("Skip malformed result in {}: {}", file, line);
+                        continue;
+                    }
+                    results.put(line.substring(0, line.indexOf(SEPARATOR)), result);
+                }
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                if (raf.length() > 0) {
+                    raf.seek(raf.length() - 1);
+                    truncated = raf.read() != '\n';
+                }
+            }
+            LOGGER.error("Loaded {} results from {}", results.size(), file);
+        }
+    }
+
+    public static String key(Param param, double skew, double fillFactor, double sampleRate, long scaleFactor) {
+        return String.join("|", "v" + CODE_VERSION, param.key(), String.valueOf(skew), String.valueOf(fillFactor),
+                String.valueOf(sampleRate), String.valueOf(scaleFactor))
+                + (sampleRate < 1 ? "|salts-" + GCExperiment.sampleSalts : "")
+                // background GC changes the GC cost depending on the idle time of the dies
+                + (GCExperiment.backgroundGCBlocks > 0 ? "|background-" + GCExperiment.backgroundGCBlocks + "|"
+                        + LatencyModel.fromProperties(param.geometry).key() : "");
+    }
+
+    public synchronized Result get(String key) {
+        return results.get(key);
+    }
+
+    public synchronized void append(String key, Result result) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if (truncated) {
+            sb.append('\n');
+        }
+        int start = sb.length();
+        sb.append(key).append(SEPARATOR);
+        sb.append(result.fillFactor).append(SEPARATOR);
+        sb.append(result.skew).append(SEPARATOR);
+        sb.append(result.E).append(SEPARATOR);
+        sb.append(result.writeCost).append(SEPARATOR);
+        sb.append(result.gcCost).append(SEPARATOR);
+        sb.append(result.gcCostError).append(SEPARATOR);
+        for (int i = 0; i < result.gcCostSeries.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(String.format("%.5f", result.gcCostSeries[i]));
+        }
+        sb.append(SEPARATOR).append(result.victimHistograms);
+        sb.append(SEPARATOR).append(checksum(sb.substring(start)));
+        sb.append('\n');
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        truncated = false;
+        results.put(key, result);
+    }
+
+    // the result of a line, or null if it is cut off or corrupted
+    static Result parse(String line) {
+        int end = line.lastIndexOf(SEPARATOR);
+        if (end < 0 || !line.substring(end + 1).equals(checksum(line.substring(0, end + 1)))) {
+            return null;
+        }
+        String[] parts = line.split(SEPARATOR, -1);
+        if (parts.length != 10) {
+            return null;
+        }
+        try {
+            if (!parts[8].isEmpty()) {
+                VictimHistograms.parse(parts[8]);
+            }
+            return new Result(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), parts[4], parts[5],
+                    parts[3], parts[6], parseSeries(parts[7]), parts[8]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String checksum(String value) {
+        CRC32 crc = new CRC32();
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static double[] parseSeries(String value) {
+        if (value.isEmpty()) {
+            return new double[0];
+        }
+        String[] parts = value.split(",");
+        double[] series = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            series[i] = Double.parseDouble(parts[i]);
+        }
+        return series;
+    }
+
+}
@@ -5,7 +5,20 @@ public interface ScoreComputer {
 
     public double compute(GCSimulator sim, Block block);
 
+    // scores blocks [from, to) into scores[from, to). Scores of blocks that are not used are undefined.
+    // Implementations read only the primitive arrays in a branch-free loop so that it can be vectorized.
+    public default void computeBatch(GCSimulator sim, BlockArrays arrays, int from, int to, double[] scores) {
+        for (int i = from; i < to; i++) {
+            scores[i] = compute(sim, sim.blocks[i]);
+        }
+    }
+
     public String name();
+
+    // whether scores depend only on the block state, so that they change only when a block is written or invalidated
+    public default boolean isTimeInvariant() {
+        return false;
+    }
 }
 
 class MinDecline implements ScoreComputer {
@@ -17,6 +30,19 @@ class MinDecline implements ScoreComputer {
         return (1 - E) / (E * E) / age;
     }
 
+    @Override
+    public void computeBatch(GCSimulator sim, BlockArrays arrays, int from, int to, double[] scores) {
+        int[] avail = arrays.avail;
+        int[] count = arrays.count;
+        double[] priorTsSum = arrays.priorTsSum;
+        double currentTs = sim.currentTs;
+        for (int i = from; i < to; i++) {
+            double E = (double) avail[i] / GCSimulator.BLOCK_SIZE;
+            double age = currentTs - priorTsSum[i] / count[i];
+            scores[i] = (1 - E) / (E * E) / age;
+        }
+    }
+
     @Override
     public String name() {
         return "min-decline";
@@ -34,6 +60,24 @@ class MinDeclineOpt implements ScoreComputer {
         return updateFreq * (1 - E) / (E * E);
     }
 
+    @Override
+    public boolean isTimeInvariant() {
+        return true;
+    }
+
+    @Override
+    public void computeBatch(GCSimulator sim, BlockArrays arrays, int from, int to, double[] scores) {
+        int[] avail = arrays.avail;
+        int[] count = arrays.count;
+        double[] updateFreqSum = arrays.updateFreqSum;
+        for (int i = from; i < to; i++) {
+            int valid = count[i] - avail[i];
+            double E = (double) avail[i] / GCSimulator.BLOCK_SIZE;
+            double score = updateFreqSum[i] / valid * (1 - E) / (E * E);
+            scores[i] = valid == 0 ? 0 : score;
+        }
+    }
+
     @Override
     public String name() {
         return "min-decline-opt";
@@ -54,6 +98,19 @@ class Berkeley implements ScoreComputer {
         return (double) (GCSimulator.BLOCK_SIZE + active) / (GCSimulator.BLOCK_SIZE - active) / age;
     }
 
+    @Override
+    public void computeBatch(GCSimulator sim, BlockArrays arrays, int from, int to, double[] scores) {
+        int[] avail = arrays.avail;
+        long[] newestTs = arrays.newestTs;
+        long currentTs = sim.currentTs;
+        for (int i = from; i < to; i++) {
+            int active = GCSimulator.BLOCK_SIZE - avail[i];
+            double age = currentTs - newestTs[i];
+            double score = (double) (GCSimulator.BLOCK_SIZE + active) / (GCSimulator.BLOCK_SIZE - active) / age;
+            scores[i] = (double) active / GCSimulator.BLOCK_SIZE >= FULL_LEVEL ? Double.MAX_VALUE : score;
+        }
+    }
+
     @Override
     public String name() {
         return "berkeley";
@@ -68,6 +125,19 @@ class MaxAvail implements ScoreComputer {
         return 1 / avail;
     }
 
+    @Override
+    public boolean isTimeInvariant() {
+        return true;
+    }
+
+    @Override
+    public void computeBatch(GCSimulator sim, BlockArrays arrays, int from, int to, double[] scores) {
+        int[] avail = arrays.avail;
+        for (int i = from; i < to; i++) {
+            scores[i] = 1.0 / Math.max(1, avail[i]);
+        }
+    }
+
     @Override
     public String name() {
         return "max-avail";
@@ -81,6 +151,16 @@ class Oldest implements ScoreComputer {
         return 1 / age;
     }
 
+    @Override
+    public void computeBatch(GCSimulator sim, BlockArrays arrays, int from, int to, double[] scores) {
+        long[] closedTs = arrays.closedTs;
+        long currentTs = sim.currentTs;
+        for (int i = from; i < to; i++) {
+            double age = Math.max(currentTs - closedTs[i], 1.0) / 1000 / 1000;
+            scores[i] = 1 / age;
+        }
+    }
+
     @Override
     public String name() {
         return "oldest";
@@ -0,0 +1,215 @@
+package simulator;
+
+import java.util.Random;
+
+import com.google.common.base.Preconditions;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+// SHARDS-style spatial sampling: a key is simulated iff hash(key) mod P < T, where T / P is the sample rate
+public class SpatialSampler {
+    private static final int MODULUS_BITS = 24;
+    private static final long MODULUS = 1L << MODULUS_BITS;
+
+    // keep enough blocks for open user/gc blocks and the gc reserve
+    public static final int MIN_BLOCKS = 128;
+
+    private final double rate;
+    private final long threshold;
+    private final long salt;
+
+    public SpatialSampler(double rate) {
+        this(rate, 0);
+    }
+
+    public SpatialSampler(double rate, long salt) {
+        Preconditions.checkArgument(rate > 0 && rate <= 1, "Invalid sample rate " + rate);
+        this.rate = rate;
+        this.threshold = (long) Math.ceil(rate * MODULUS);
+        this.salt = salt;
+    }
+
+    public double rate() {
+        return rate;
+    }
+
+    public boolean sample(int lpid) {
+        return sample(lpid & 0xFFFFFFFFL);
+    }
+
+    public boolean sample(int file, int page) {
+        return sample(((long) file << 32) | (page & 0xFFFFFFFFL));
+    }
+
+    private boolean sample(long key) {
+        return (hash(key ^ salt) >>> (64 - MODULUS_BITS)) < threshold;
+    }
+
+    // size a device for the sampled pages so that the fill factor is preserved
+    public int scalePages(int sampledPages, double fillFactor) {
+        return roundToBlocks((long) Math.ceil(sampledPages / fillFactor));
+    }
+
+    // scale a device proportionally to the sample rate
+    public int scalePages(int totalPages) {
+        return roundToBlocks((long) Math.ceil(totalPages * rate));
+    }
+
+    private int roundToBlocks(long pages) {
+        long blocks = (pages + GCSimulator.BLOCK_SIZE - 1) / GCSimulator.BLOCK_SIZE;
+        blocks = Math.max(MIN_BLOCKS, Math.min(blocks, GCSimulator.TOTAL_BLOCKS));
+        return (int) (blocks * GCSimulator.BLOCK_SIZE);
+    }
+
+    @Override
+    public String toString() {
+        return "sample-" + rate;
+    }
+
+    // murmur3 fmix64
+    public static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+}
+
+// restricts a generator to the sampled lpids and renumbers them densely from 1. Lpids are drawn from the
+// renormalized distribution of the sampled lpids with an alias table, so that a write costs O(1) regardless of the
+// sample rate
+class SampledLpidGenerator implements LpidGenerator {
+    private final LpidGenerator gen;
+    private final SpatialSampler sampler;
+
+    private final int[] sampledLpids;
+    private final double probMass;
+    // alias table over the compact lpids minus 1
+    private final double[] aliasProbs;
+    private final int[] aliases;
+    private final Random random;
+    private double minProb = Double.MAX_VALUE;
+    private double maxProb = 0;
+
+    private SampledLpidGenerator(SampledLpidGenerator other) {
+        this.gen = other.gen.fork();
+        this.sampler = other.sampler;
+        this.sampledLpids = other.sampledLpids;
+        this.probMass = other.probMass;
+        this.aliasProbs = other.aliasProbs;
+        this.aliases = other.aliases;
+        this.random = new Random();
+        this.minProb = other.minProb;
+        this.maxProb = other.maxProb;
+    }
+
+    public SampledLpidGenerator(LpidGenerator gen, SpatialSampler sampler) {
+        this.gen = gen;
+        this.sampler = sampler;
+        IntArrayList lpids = new IntArrayList((int) (gen.maxLpid() * sampler.rate() * 1.1));
+        lpids.add(0);
+        double mass = 0;
+        for (int lpid = 1; lpid <= gen.maxLpid(); lpid++) {
+            if (sampler.sample(lpid)) {
+                lpids.add(lpid);
+                mass += gen.getProb(lpid);
+            }
+        }
+        Preconditions.checkState(lpids.size() > 1, "No lpid is sampled at rate " + sampler.rate());
+        this.sampledLpids = lpids.toIntArray();
+        this.probMass = mass;
+        int n = sampledLpids.length - 1;
+        this.aliasProbs = new double[n];
+        this.aliases = new int[n];
+        this.random = new Random();
+        for (int i = 1; i <= n; i++) {
+            double prob = getProb(i);
+            minProb = Math.min(minProb, prob);
+            maxProb = Math.max(maxProb, prob);
+            aliasProbs[i - 1] = prob * n;
+        }
+        buildAliases(aliasProbs, aliases);
+    }
+
+    // Vose's alias method: on input probs holds the probabilities scaled by their count, on output the probability
+    // of keeping each slot instead of taking its alias
+    private static void buildAliases(double[] probs, int[] aliases) {
+        int n = probs.length;
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int numSmall = 0;
+        int numLarge = 0;
+        for (int i = 0; i < n; i++) {
+            aliases[i] = i;
+            if (probs[i] < 1) {
+                small[numSmall++] = i;
+            } else {
+                large[numLarge++] = i;
+            }
+        }
+        while (numSmall > 0 && numLarge > 0) {
+            int less = small[--numSmall];
+            int more = large[--numLarge];
+            aliases[less] = more;
+            probs[more] -= 1 - probs[less];
+            if (probs[more] < 1) {
+                small[numSmall++] = more;
+            } else {
+                large[numLarge++] = more;
+            }
+        }
+        // the remaining slots are 1 up to rounding errors
+        while (numSmall > 0) {
+            probs[small[--numSmall]] = 1;
+        }
+        while (numLarge > 0) {
+            probs[large[--numLarge]] = 1;
+        }
+    }
+
+    @Override
+    public int generate() {
+        int slot = random.nextInt(aliasProbs.length);
+        // compact lpids start from 1
+        return (random.nextDouble() < aliasProbs[slot] ? slot : aliases[slot]) + 1;
+    }
+
+    @Override
+    public double getProb(int lpid) {
+        return gen.getProb(sampledLpids[lpid]) / probMass;
+    }
+
+    @Override
+    public int maxLpid() {
+        return sampledLpids.length - 1;
+    }
+
+    @Override
+    public String name() {
+        return gen.name() + "-" + sampler;
+    }
+
+    @Override
+    public LpidGenerator fork() {
+        return new SampledLpidGenerator(this);
+    }
+
+    @Override
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
+    @Override
+    public double getMinProb() {
+        return minProb;
+    }
+
+    @Override
+    public double getMaxProb() {
+        return maxProb;
+    }
+
+}
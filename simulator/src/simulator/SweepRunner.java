@@ -0,0 +1,235 @@
+package simulator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.Preconditions;
+
+import simulator.UniformLpidGenerator.UniformLpidGeneratorFactory;
+import simulator.ZipfLpidGenerator.ZipfLpidGeneratorFactory;
+
+// runs the grid of policies x skews x fill factors described by a properties file, e.g., sweep.properties.
+// Each cell is admitted to the thread pool only when its estimated heap footprint fits into the remaining
+// memory budget, so that the number of concurrent simulations adapts to their sizes.
+public class SweepRunner {
+    private static final Logger LOGGER = LogManager.getLogger(SweepRunner.class);
+
+    static final int MB = 1024 * 1024;
+    // headroom for objects not covered by the estimate
+    private static final double MEMORY_SLACK = 1.2;
+    // the share of the max heap used by default
+    static final double DEFAULT_BUDGET_RATIO = 0.8;
+
+    private final String name;
+    private final String[] policies;
+    private final double[] skews;
+    private final double[] fillFactors;
+    private final double sampleRate;
+    private final int batchBlocks;
+    private final int threads;
+    private final int budgetMB;
+    private final DeviceGeometry geometry;
+    private final boolean wearAware;
+    // threshold of static wear leveling, which multi-log policies run without
+    private final int wearLeveling;
+    // at most this many seeded replicas of each cell, see ReplicatedRun
+    private final int replicas;
+    private final int minReplicas;
+    private final double targetHalfWidth;
+
+    public SweepRunner(Properties props) {
+        this.name = props.getProperty("name", "sweep");
+        this.policies = props.getProperty("policies", "greedy").split("\\s*,\\s*");
+        this.skews = parseDoubles(props.getProperty("skews", "0.99"));
+        this.fillFactors = parseDoubles(props.getProperty("fillFactors", "0.8"));
+        this.sampleRate = Double.parseDouble(props.getProperty("sampleRate", "1.0"));
+        this.batchBlocks = Integer.parseInt(props.getProperty("batchBlocks", "64"));
+        this.threads = Integer.parseInt(
+                props.getProperty("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        this.budgetMB = Integer.parseInt(props.getProperty("memoryMB",
+                String.valueOf((long) (Runtime.getRuntime().maxMemory() * DEFAULT_BUDGET_RATIO / MB))));
+        this.geometry = DeviceGeometry.parse(props.getProperty("geometry", "1x1"));
+        this.wearAware = Boolean.parseBoolean(props.getProperty("wearAware", "false"));
+        this.wearLeveling = Integer.parseInt(props.getProperty("wearLeveling", "0"));
+        this.replicas = Integer.parseInt(props.getProperty("replicas", "1"));
+        this.minReplicas = Integer.parseInt(props.getProperty("minReplicas", "3"));
+        this.targetHalfWidth = Double.parseDouble(props.getProperty("targetHalfWidth", "0.01"));
+        Preconditions.checkArgument(threads > 0 && budgetMB > 0 && replicas > 0 && wearLeveling >= 0);
+        for (String policy : policies) {
+            createParam(policy, new UniformLpidGeneratorFactory());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Preconditions.checkArgument(args.length == 1, "Usage: SweepRunner <config file>");
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(args[0])) {
+            props.load(in);
+        }
+        new SweepRunner(props).run();
+    }
+
+    public void run() throws IOException, InterruptedException, ExecutionException {
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        // replicated cells wait for their replicas in these threads instead of the pool
+        ExecutorService coordinators = Executors.newCachedThreadPool();
+        Semaphore memory = new Semaphore(budgetMB);
+        ResultStore store = new ResultStore(new File(name + ".results"));
+        try {
+            Future[][][] results = new Future[skews.length][fillFactors.length][policies.length];
+            Param[][] params = new Param[skews.length][policies.length];
+            for (int s = 0; s < skews.length; s++) {
+                LpidGeneratorFactory gen = skews[s] == 0 ? new UniformLpidGeneratorFactory()
+                        : new ZipfLpidGeneratorFactory(skews[s]);
+                for (int p = 0; p < policies.length; p++) {
+                    params[s][p] = createParam(policies[p], gen).withGeometry(geometry);
+                    if (wearAware) {
+                        params[s][p].withWearAwareAllocation();
+                    }
+                    if (wearLeveling > 0 && !params[s][p].multiLog) {
+                        params[s][p].withStaticWearLeveling(wearLeveling);
+                    }
+                }
+                for (int f = 0; f < fillFactors.length; f++) {
+                    for (int p = 0; p < policies.length; p++) {
+                        results[s][f][p] = submit(executor, coordinators, memory, store, params[s][p], skews[s],
+                                fillFactors[f]);
+                    }
+                }
+            }
+            for (int s = 0; s < skews.length; s++) {
+                GCExperiment.writeResults(name + "-skew-" + skews[s], fillFactors, params[s], sampleRate < 1,
+                        results[s]);
+                System.out.println("Completed skew " + skews[s]);
+            }
+        } finally {
+            executor.shutdown();
+            coordinators.shutdown();
+        }
+    }
+
+    // skips the cell if it is in the store, or blocks until it fits into the memory budget
+    private Future<Result> submit(ThreadPoolExecutor executor, ExecutorService coordinators, Semaphore memory,
+            ResultStore store, Param param, double skew, double fillFactor) throws InterruptedException {
+        String key = ResultStore.key(param, skew, fillFactor, sampleRate, GCExperiment.SCALE_FACTOR)
+                + (replicas > 1 ? "|replicas-" + minReplicas + "-" + replicas + "-" + targetHalfWidth : "");
+        Result stored = store.get(key);
+        if (stored != null) {
+            return CompletableFuture.completedFuture(stored);
+        }
+        int permits = (int) Math.min(budgetMB, Math.ceil((double) estimateBytes(param, fillFactor, sampleRate) / MB));
+        if (replicas > 1) {
+            // each replica is admitted separately
+            ReplicatedRun run = new ReplicatedRun(executor, memory, permits, param, skew, fillFactor, sampleRate,
+                    minReplicas, replicas, targetHalfWidth);
+            return coordinators.submit(() -> GCExperiment.store(store, key, run.call()));
+        }
+        if (memory.availablePermits() < permits) {
+            LOGGER.error("Waiting for {}MB of {}MB to run {} with fill factor {}", permits, budgetMB, param.name,
+                    fillFactor);
+        }
+        memory.acquire(permits);
+        try {
+            return executor.submit(() -> {
+                try {
+                    return GCExperiment.store(store, key, GCExperiment.simulate(param, skew, fillFactor, sampleRate));
+                } finally {
+                    memory.release(permits);
+                }
+            });
+        } catch (RuntimeException e) {
+            memory.release(permits);
+            throw e;
+        }
+    }
+
+    // estimates the heap footprint of a simulation from its per-page and per-block arrays
+    static long estimateBytes(Param param, double fillFactor, double sampleRate) {
+        long totalPages = GCSimulator.TOTAL_PAGES;
+        long maxLpid = (long) (fillFactor * GCSimulator.TOTAL_PAGES);
+        // the generator is created for all lpids even when they are sampled
+        long bytes = 8 * maxLpid;
+        if (sampleRate < 1) {
+            maxLpid = (long) (maxLpid * sampleRate);
+            totalPages = Math.max(SpatialSampler.MIN_BLOCKS * GCSimulator.BLOCK_SIZE,
+                    (long) (totalPages * sampleRate));
+        }
+        long totalBlocks = totalPages / GCSimulator.BLOCK_SIZE;
+        // mapping table
+        bytes += 8 * totalPages;
+        // blocks: lpid array, object and block arrays
+        bytes += totalBlocks * (4L * GCSimulator.BLOCK_SIZE + 160);
+        // shuffled load order
+        bytes += 4 * maxLpid;
+        if (sampleRate < 1) {
+            // sampled lpids and alias table of the sampled generator
+            bytes += 16 * maxLpid;
+        }
+        BlockSelector selector = param.createBlockSelector();
+        if (selector instanceof OptBlockSelector) {
+            bytes += 4 * maxLpid;
+        } else if (selector instanceof DecayBlockSelector) {
+            bytes += maxLpid;
+        }
+        return (long) (bytes * MEMORY_SLACK);
+    }
+
+    private Param createParam(String policy, LpidGeneratorFactory gen) {
+        Comparator<Block> priorTsSorter = (b1, b2) -> Double.compare(b1.priorTsSum, b2.priorTsSum);
+        switch (policy) {
+            case "greedy":
+                return new Param("Greedy", gen, NoWriteBuffer.INSTANCE, NoBlockSelector.INSTANCE, new MaxAvail(), null,
+                        batchBlocks, false);
+            case "lru":
+                return new Param("LRU", gen, NoWriteBuffer.INSTANCE, NoBlockSelector.INSTANCE, new Oldest(), null,
+                        batchBlocks, false);
+            case "berkeley":
+                return new Param("Berkeley", gen, NoWriteBuffer.INSTANCE, NoBlockSelector.INSTANCE, new Berkeley(),
+                        null, batchBlocks, false);
+            case "min-decline":
+                return new Param("Min-Decline", gen, new SortWriteBuffer(batchBlocks * GCSimulator.BLOCK_SIZE),
+                        NoBlockSelector.INSTANCE, new MinDecline(), priorTsSorter, batchBlocks, false);
+            case "min-decline-opt":
+                return new Param("Min-Decline-OPT", gen, NoWriteBuffer.INSTANCE, new OptBlockSelector(),
+                        new MinDeclineOpt(), null, batchBlocks, false);
+            case "greedy-learned":
+                return new Param("Greedy-Learned", gen, NoWriteBuffer.INSTANCE, new DecayBlockSelector(9, 1.0),
+                        new MaxAvail(), null, batchBlocks, false);
+            case "multi-log":
+                return new Param("Multi-Log", gen, NoWriteBuffer.INSTANCE, new MultiLogBlockSelector(), null, null,
+                        batchBlocks, true);
+            case "multi-log-global":
+                return new Param("Multi-Log-Global", gen, NoWriteBuffer.INSTANCE, new MultiLogBlockSelector(), null,
+                        null, batchBlocks, true).withGlobalLineSelection();
+            default:
+                throw new IllegalArgumentException("Unknown policy " + policy);
+        }
+    }
+
+    private static double[] parseDoubles(String value) {
+        String[] parts = value.split("\\s*,\\s*");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i]);
+        }
+        return values;
+    }
+
+}
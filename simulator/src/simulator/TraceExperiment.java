@@ -14,6 +14,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import simulator.TPCCLpidGenerator.TPCCLpidGeneratorFactory;
 import simulator.ZipfLpidGenerator.ZipfLpidGeneratorFactory;
 
@@ -27,9 +28,14 @@ public class TraceExperiment {
     //    private static final int[] scaleFactors = new int[] { 350, 420, 490, 560 };
     //    private static final double[] stopThresholds = new double[] { 0.6, 0.7, 0.8, 0.9 };
 
-    private static final String basePath = "/Users/luochen/Desktop/trace/";
+    private static final String basePath = System.getProperty("trace.path", "/Users/luochen/Desktop/trace/");
     private static final int[] scaleFactors = new int[] { 560 };
     private static final double[] stopThresholds = new double[] { 0.9 };
+    private static final double sampleRate = 1.0;
+    // hash, flat or extent
+    private static final String mapperType = "hash";
+    // lookahead window of the oracle selector relative to the device size
+    private static final double lookaheadRatio = 1.0;
 
     private static final int THREADS = 1;
 
@@ -60,13 +66,15 @@ public class TraceExperiment {
                 //                        NoBlockSelector.INSTANCE, new MinDecline(), priorTsSorter, BATCH_BLOCKS, false),
                 //                new Param("Min-Decline-OPT", new TPCCLpidGeneratorFactory(), NoWriteBuffer.INSTANCE,
                 //                        new OptBlockSelector(), new MinDeclineOpt(), priorTsSorter, BATCH_BLOCKS, false)
+                //                new Param("Greedy-Oracle", gen, NoWriteBuffer.INSTANCE, new OracleBlockSelector(32),
+                //                        new MaxAvail(), null, BATCH_BLOCKS, false)
         };
 
         Future[][] results = new Future[scaleFactors.length][params.length];
 
         for (int i = 0; i < scaleFactors.length; i++) {
             for (int j = 0; j < params.length; j++) {
-                results[i][j] = run(params[j], scaleFactors[i], stopThresholds[i]);
+                results[i][j] = run(params[j], scaleFactors[i], stopThresholds[i], sampleRate);
             }
         }
 
@@ -76,6 +84,9 @@ public class TraceExperiment {
             writer.append(param.name + "-E\t");
             writer.append(param.name + "-write cost\t");
             writer.append(param.name + "-GC cost\t");
+            if (sampleRate < 1) {
+                writer.append(param.name + "-GC cost error\t");
+            }
         }
         writer.println();
 
@@ -92,6 +103,10 @@ public class TraceExperiment {
                 sb.append("\t");
                 sb.append(result.gcCost);
                 sb.append("\t");
+                if (sampleRate < 1) {
+                    sb.append(result.gcCostError);
+                    sb.append("\t");
+                }
             }
             System.out.println(sb.toString());
             writer.println(sb.toString());
@@ -101,49 +116,115 @@ public class TraceExperiment {
     }
 
     public static Future<Result> run(Param param, int scaleFactor, double stopThreshold) throws IOException {
+        return run(param, scaleFactor, stopThreshold, 1.0);
+    }
+
+    public static Future<Result> run(Param param, int scaleFactor, double stopThreshold, double sampleRate)
+            throws IOException {
         return executor.submit(new Callable<Result>() {
             @Override
             public Result call() throws Exception {
-                int stopPages = (int) (GCSimulator.TOTAL_PAGES * stopThreshold);
-                GCSimulator sim = param.multiLog ? new MultiLogSimulator(param, GCSimulator.TOTAL_PAGES)
-                        : new GCSimulator(param, GCSimulator.TOTAL_PAGES);
-                FileMapper mapper = new FileMapper(GCSimulator.TOTAL_PAGES, sim);
-
-                if (sim.gen instanceof TPCCLpidGenerator) {
-                    trainGenerator((TPCCLpidGenerator) sim.gen, new FileMapper(GCSimulator.TOTAL_PAGES, sim),
-                            scaleFactor);
+                if (sampleRate >= 1) {
+                    GCSimulator sim = simulate(param, scaleFactor, stopThreshold, null);
+                    return new Result(scaleFactor, 0, sim.formatWriteCost(), sim.formatGCCost(), sim.formatE());
                 }
-                sim.blockSelector.init(sim);
+                // the spread over the sampler salts bounds the error of the sampling
+                int salts = GCExperiment.sampleSalts;
+                double[] E = new double[salts];
+                double[] writeCosts = new double[salts];
+                double[] gcCosts = new double[salts];
+                for (int salt = 0; salt < salts; salt++) {
+                    GCSimulator sim = simulate(param, scaleFactor, stopThreshold, new SpatialSampler(sampleRate, salt));
+                    E[salt] = sim.getE();
+                    writeCosts[salt] = sim.getWriteCost();
+                    gcCosts[salt] = sim.getGCCost();
+                }
+                Estimate gcCost = Estimate.of(gcCosts, 0, salts);
+                return new Result(scaleFactor, 0, format(Estimate.of(writeCosts, 0, salts).mean),
+                        format(gcCost.mean), format(Estimate.of(E, 0, salts).mean), format(gcCost.halfWidth));
+            }
+        });
+    }
 
-                TraceReader loadReader = new TraceReader(basePath + "load-" + scaleFactor + ".trace");
-                applyTrace(scaleFactor, "load", loadReader, mapper, sim, GCSimulator.TOTAL_PAGES / 10, Integer.MAX_VALUE);
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
 
-                System.out.println(String.format("Scale factor %d completed loading. Current pages %.3f: %d/%d",
-                        scaleFactor, (double) mapper.getUsedLpids() / GCSimulator.TOTAL_PAGES, mapper.getUsedLpids(),
-                        GCSimulator.TOTAL_PAGES));
-                sim.resetStats();
-                //sim.resetTimestamps();
+    // sampled pages are replayed on a proportionally scaled device
+    private static GCSimulator simulate(Param param, int scaleFactor, double stopThreshold, SpatialSampler sampler)
+            throws Exception {
+        int totalPages = sampler != null ? sampler.scalePages(GCSimulator.TOTAL_PAGES) : GCSimulator.TOTAL_PAGES;
+        int stopPages = (int) (totalPages * stopThreshold);
+        GCSimulator sim = param.createSimulator(param.genFactory.create(totalPages), totalPages);
+        FileMapper mapper = createMapper(totalPages);
 
-                TraceReader runReader = new TraceReader(basePath + "run-" + scaleFactor + ".trace");
-                applyTrace(scaleFactor, "run", runReader, mapper, sim, GCSimulator.TOTAL_PAGES / 10, Integer.MAX_VALUE);
+        if (sim.gen instanceof TPCCLpidGenerator) {
+            trainGenerator((TPCCLpidGenerator) sim.gen, createMapper(totalPages), sampler, scaleFactor);
+        }
+        sim.blockSelector.init(sim);
 
-                sim.writeBuffer.flush(sim);
-                System.out.println(String.format("Scale factor %d completed running. Current pages %.3f: %d/%d",
-                        scaleFactor, (double) mapper.getUsedLpids() / GCSimulator.TOTAL_PAGES, mapper.getUsedLpids(),
-                        GCSimulator.TOTAL_PAGES));
+        TraceOracle oracle = null;
+        if (sim.blockSelector instanceof OracleBlockSelector) {
+            String[] paths = new String[] { basePath + "load-" + scaleFactor + ".trace",
+                    basePath + "run-" + scaleFactor + ".trace" };
+            oracle = new TraceOracle(paths, createMapper(totalPages), sampler, (int) (totalPages * lookaheadRatio),
+                    totalPages);
+            ((OracleBlockSelector) sim.blockSelector).setOracle(oracle);
+        }
 
-                return new Result(scaleFactor, 0, sim.formatWriteCost(), sim.formatGCCost(), sim.formatE());
-            }
-        });
+        TraceReader loadReader = new TraceReader(basePath + "load-" + scaleFactor + ".trace");
+        applyTrace(scaleFactor, "load", loadReader, mapper, sampler, oracle, sim, totalPages / 10,
+                Integer.MAX_VALUE);
+
+        System.out.println(String.format("Scale factor %d completed loading. Current pages %.3f: %d/%d",
+                scaleFactor, (double) mapper.getUsedLpids() / totalPages, mapper.getUsedLpids(), totalPages));
+        sim.resetStats();
+        //sim.resetTimestamps();
+
+        TraceReader runReader = new TraceReader(basePath + "run-" + scaleFactor + ".trace");
+        applyTrace(scaleFactor, "run", runReader, mapper, sampler, oracle, sim, totalPages / 10,
+                Integer.MAX_VALUE);
+
+        sim.writeBuffer.flush(sim);
+        if (oracle != null) {
+            oracle.close();
+        }
+        System.out.println(String.format("Scale factor %d completed running. Current pages %.3f: %d/%d",
+                scaleFactor, (double) mapper.getUsedLpids() / totalPages, mapper.getUsedLpids(), totalPages));
+
+        return sim;
     }
 
-    private static void trainGenerator(TPCCLpidGenerator gen, FileMapper mapper, int scaleFactor) throws Exception {
+    private static FileMapper createMapper(int numLpids) {
+        switch (mapperType) {
+            case "flat":
+                return new FlatFileMapper(numLpids);
+            case "extent":
+                return new ExtentFileMapper(numLpids);
+            default:
+                return new HashFileMapper(numLpids);
+        }
+    }
+
+    private static void trainGenerator(TPCCLpidGenerator gen, FileMapper mapper, SpatialSampler sampler,
+            int scaleFactor) throws Exception {
         TraceReader runReader = new TraceReader(basePath + "run-" + scaleFactor + ".trace");
 
         TraceOperation op = new TraceOperation();
+        // the released lpids only matter for the simulator
+        IntArrayList lpids = new IntArrayList();
         while (runReader.read(op)) {
+            if (sampler != null && op.op == TraceReader.WRITE && !sampler.sample(op.file, op.page)) {
+                continue;
+            }
             if (op.op == TraceReader.WRITE) {
                 gen.add(mapper.write(op.file, op.page));
+            } else if (op.op == TraceReader.DELETE) {
+                mapper.delete(op.file, lpids);
+                lpids.clear();
+            } else if (op.op == TraceReader.TRIM) {
+                mapper.trim(op.file, op.page, op.length, lpids);
+                lpids.clear();
             } else {
                 throw new IllegalStateException("Unknown operation " + op.op);
             }
@@ -152,18 +233,36 @@ public class TraceExperiment {
         gen.compute();
     }
 
-    private static void applyTrace(int scaleFactor, String phase, TraceReader reader, FileMapper mapper, GCSimulator sim,
-            int progress, int stopPages) throws IOException {
+    private static void applyTrace(int scaleFactor, String phase, TraceReader reader, FileMapper mapper,
+            SpatialSampler sampler, TraceOracle oracle, GCSimulator sim, int progress, int stopPages)
+            throws Exception {
         TraceOperation op = new TraceOperation();
+        IntArrayList lpids = new IntArrayList();
         int i = 0;
         long counter = 0;
         while (reader.read(op)) {
+            if (sampler != null && op.op == TraceReader.WRITE && !sampler.sample(op.file, op.page)) {
+                continue;
+            }
             if (op.op == TraceReader.WRITE) {
-                sim.write(mapper.write(op.file, op.page));
+                int lpid = mapper.write(op.file, op.page);
+                if (oracle != null) {
+                    oracle.advance(lpid);
+                }
+                sim.write(lpid);
+            } else if (op.op == TraceReader.DELETE) {
+                mapper.delete(op.file, lpids);
+                sim.delete(lpids);
+                lpids.clear();
+            } else if (op.op == TraceReader.TRIM) {
+                mapper.trim(op.file, op.page, op.length, lpids);
+                sim.delete(lpids);
+                lpids.clear();
             } else {
                 throw new IllegalStateException("Unknown operation " + op.op);
             }
             if (++i % progress == 0) {
+                sim.recordEpoch();
                 LOGGER.error("Simulation {} completed {}/{}. E: {}, write cost: {}, GC cost: {}", sim.param.name, i,
                         mapper.getUsedLpids(), sim.formatE(), sim.formatWriteCost(), sim.formatGCCost());
                 if (sim.blockSelector instanceof MultiLogBlockSelector) {
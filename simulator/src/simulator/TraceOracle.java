@@ -0,0 +1,133 @@
+package simulator;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+// predicts when each written lpid dies, i.e., is overwritten or deleted, by reading the trace ahead of the replay.
+// The lookahead replays the same operations on its own mapper, so it produces the same lpids as the replay,
+// and keeps a bounded window of future writes. A write whose lpid is not written or deleted again within the
+// window is predicted to live forever.
+public class TraceOracle {
+    // deaths are stored per lpid in units of 2^DEATH_SHIFT writes
+    public static final int DEATH_SHIFT = 4;
+    private static final int UNKNOWN = Integer.MAX_VALUE;
+
+    private final String[] paths;
+    private int pathIndex = 0;
+    private TraceReader reader;
+    private final FileMapper mapper;
+    private final SpatialSampler sampler;
+    private final TraceOperation op = new TraceOperation();
+    private final IntArrayList released = new IntArrayList();
+
+    private final int window;
+    private final int[] windowLpids;
+    // writes from each write in the window until its lpid dies, which is less than the window, or -1
+    private final int[] windowDeaths;
+    // lpid -> slot of its latest write in the window, or -1. The slot is cleared when the write is consumed,
+    // before it can be reused
+    private final int[] lastWrites;
+    private long readPosition = 0;
+    private long position = 0;
+
+    private final int[] deaths;
+
+    public TraceOracle(String[] paths, FileMapper mapper, SpatialSampler sampler, int window, int numLpids)
+            throws Exception {
+        this.paths = paths;
+        this.mapper = mapper;
+        this.sampler = sampler;
+        this.window = window;
+        this.windowLpids = new int[window];
+        this.windowDeaths = new int[window];
+        this.lastWrites = new int[numLpids];
+        Arrays.fill(lastWrites, -1);
+        this.deaths = new int[numLpids];
+        Arrays.fill(deaths, UNKNOWN);
+        this.reader = new TraceReader(paths[0]);
+    }
+
+    // consumes the next write of the replay
+    public void advance(int lpid) throws Exception {
+        while (readPosition < position + window && readNext()) {
+        }
+        assert position < readPosition;
+        int index = (int) (position % window);
+        assert windowLpids[index] == lpid;
+        if (lastWrites[lpid] == index) {
+            lastWrites[lpid] = -1;
+        }
+        int distance = windowDeaths[index];
+        deaths[lpid] = distance < 0 ? UNKNOWN : (int) Math.min((position + distance) >>> DEATH_SHIFT, UNKNOWN - 1);
+        position++;
+    }
+
+    public long position() {
+        return position;
+    }
+
+    // writes until the lpid dies, or Long.MAX_VALUE if it lives beyond the lookahead window
+    public long remaining(int lpid) {
+        int death = deaths[lpid];
+        return death == UNKNOWN ? Long.MAX_VALUE : Math.max(0, ((long) death << DEATH_SHIFT) - position);
+    }
+
+    // reads until one more write is appended to the window, and returns false at the end of the trace
+    private boolean readNext() throws Exception {
+        if (pathIndex == paths.length) {
+            // the last reader is closed
+            return false;
+        }
+        while (true) {
+            if (!reader.read(op)) {
+                if (++pathIndex == paths.length) {
+                    return false;
+                }
+                reader = new TraceReader(paths[pathIndex]);
+                continue;
+            }
+            if (op.op == TraceReader.WRITE) {
+                if (sampler != null && !sampler.sample(op.file, op.page)) {
+                    continue;
+                }
+                int lpid = mapper.write(op.file, op.page);
+                int index = (int) (readPosition % window);
+                setDeath(lastWrites[lpid]);
+                lastWrites[lpid] = index;
+                windowLpids[index] = lpid;
+                windowDeaths[index] = -1;
+                readPosition++;
+                return true;
+            } else if (op.op == TraceReader.DELETE || op.op == TraceReader.TRIM) {
+                if (op.op == TraceReader.DELETE) {
+                    mapper.delete(op.file, released);
+                } else {
+                    mapper.trim(op.file, op.page, op.length, released);
+                }
+                for (int i = 0; i < released.size(); i++) {
+                    int lpid = released.getInt(i);
+                    setDeath(lastWrites[lpid]);
+                    lastWrites[lpid] = -1;
+                }
+                released.clear();
+            } else {
+                throw new IllegalStateException("Unknown operation " + op.op);
+            }
+        }
+    }
+
+    // the lpid of the write in the given slot dies at readPosition
+    private void setDeath(int slot) {
+        if (slot >= 0) {
+            int readSlot = (int) (readPosition % window);
+            windowDeaths[slot] = readSlot > slot ? readSlot - slot : readSlot + window - slot;
+        }
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
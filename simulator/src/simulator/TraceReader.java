@@ -17,6 +17,7 @@ public class TraceReader {
 
     public static final byte WRITE = 1;
     public static final byte DELETE = 2;
+    public static final byte TRIM = 3;
 
     private final BufferedInputStream stream;
     private final VarLenDataInput input;
@@ -34,6 +35,10 @@ public class TraceReader {
                 operation.page = input.readInt();
             } else if (operation.op == DELETE) {
                 operation.file = input.readInt();
+            } else if (operation.op == TRIM) {
+                operation.file = input.readInt();
+                operation.page = input.readInt();
+                operation.length = input.readInt();
             } else {
                 throw new IllegalStateException("Unknown operation " + operation.op);
             }
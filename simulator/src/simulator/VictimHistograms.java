@@ -0,0 +1,105 @@
+package simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+// fixed-bucket histograms of the blocks collected by GC: valid pages, age since the block was closed, and line
+public class VictimHistograms {
+    public static final int UTILIZATION_BUCKETS = 64;
+    // ages are bucketed by log2 of the writes since the block was closed
+    public static final int AGE_BUCKETS = 64;
+
+    final long[] utilization = new long[UTILIZATION_BUCKETS];
+    final long[] age = new long[AGE_BUCKETS];
+    final long[] lines = new long[MetricsRecorder.MAX_LINES];
+
+    public void record(Block block, long currentTs) {
+        int valid = block.count - block.avail;
+        utilization[Math.min(UTILIZATION_BUCKETS - 1, valid * UTILIZATION_BUCKETS / GCSimulator.BLOCK_SIZE)]++;
+        age[64 - Long.numberOfLeadingZeros(Math.max(0, currentTs - block.closedTs))]++;
+        if (block.line >= 0 && block.line < lines.length) {
+            lines[block.line]++;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(utilization, 0);
+        Arrays.fill(age, 0);
+        Arrays.fill(lines, 0);
+    }
+
+    public VictimHistograms copy() {
+        VictimHistograms copy = new VictimHistograms();
+        System.arraycopy(utilization, 0, copy.utilization, 0, utilization.length);
+        System.arraycopy(age, 0, copy.age, 0, age.length);
+        System.arraycopy(lines, 0, copy.lines, 0, lines.length);
+        return copy;
+    }
+
+    // writes one row per bucket with the lower bound of the bucket and its count in each histogram
+    public void write(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println("histogram,bucket,victims");
+            for (int i = 0; i < UTILIZATION_BUCKETS; i++) {
+                writer.println(
+                        "valid pages," + i * GCSimulator.BLOCK_SIZE / UTILIZATION_BUCKETS + "," + utilization[i]);
+            }
+            for (int i = 0; i < AGE_BUCKETS; i++) {
+                writer.println("age," + (i == 0 ? 0 : 1L << (i - 1)) + "," + age[i]);
+            }
+            for (int i = 0; i < lines.length; i++) {
+                writer.println("line," + i + "," + lines[i]);
+            }
+        }
+    }
+
+    // a compact form for results, e.g., util:0,3,12;age:0,0,5;line:20, without trailing empty buckets
+    @Override
+    public String toString() {
+        return "util:" + join(utilization) + ";age:" + join(age) + ";line:" + join(lines);
+    }
+
+    // the inverse of toString
+    public static VictimHistograms parse(String value) {
+        String[] parts = value.split(";", -1);
+        Preconditions.checkArgument(parts.length == 3, "Invalid victim histograms %s", value);
+        VictimHistograms histograms = new VictimHistograms();
+        split(parts[0], "util:", histograms.utilization);
+        split(parts[1], "age:", histograms.age);
+        split(parts[2], "line:", histograms.lines);
+        return histograms;
+    }
+
+    private static void split(String value, String prefix, long[] counts) {
+        Preconditions.checkArgument(value.startsWith(prefix), "Invalid histogram %s", value);
+        value = value.substring(prefix.length());
+        if (value.isEmpty()) {
+            return;
+        }
+        String[] parts = value.split(",", -1);
+        Preconditions.checkArgument(parts.length <= counts.length, "Too many buckets in %s", value);
+        for (int i = 0; i < parts.length; i++) {
+            counts[i] = Long.parseLong(parts[i]);
+        }
+    }
+
+    private static String join(long[] counts) {
+        int length = counts.length;
+        while (length > 0 && counts[length - 1] == 0) {
+            length--;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(counts[i]);
+        }
+        return sb.toString();
+    }
+
+}
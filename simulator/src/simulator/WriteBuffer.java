@@ -1,6 +1,13 @@
 package simulator;
 
 import java.util.Arrays;
+import java.util.BitSet;
+
+import com.google.common.base.Preconditions;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 
 interface WriteBuffer {
     public WriteBuffer clone();
@@ -8,6 +15,29 @@ interface WriteBuffer {
     public void write(GCSimulator sim, int lpid, long ts, Block block);
 
     public void flush(GCSimulator sim);
+
+    // drops the buffered writes of deleted lpids, so that they are not written at the next flush
+    public default void discard(IntArrayList lpids) {
+    }
+
+    // resets the counters of the buffer together with those of the simulator, e.g., after the load phase
+    public default void clearStats() {
+    }
+
+    // identifies the buffer and every setting that changes the results, see Param.key
+    public default String key() {
+        return getClass().getSimpleName();
+    }
+
+    // the number of writes the buffer holds when it is full, 0 if writes are not buffered
+    public default int capacity() {
+        return 0;
+    }
+
+    // the number of buffered writes
+    public default int size() {
+        return 0;
+    }
 }
 
 class NoWriteBuffer implements WriteBuffer {
@@ -35,69 +65,463 @@ class NoWriteBuffer implements WriteBuffer {
 
 class SortWriteBuffer implements WriteBuffer {
 
-    private static class Entry implements Comparable<Entry> {
-        int lpid;
-        long ts;
-        long sortTs;
+    // entries are sorted by (sortTs, lpid) packed into one key, with ts in a parallel array
+    private final long[] keys;
+    private final long[] tss;
+    private final long[] keyBuffer;
+    private final long[] tsBuffer;
+    // the lpids with buffered writes, which filters discards
+    private final BitSet buffered = new BitSet();
+    private int lpidBits = 0;
+    private int index = 0;
+    private boolean reverse = false;
+
+    public SortWriteBuffer(int size) {
+        this.keys = new long[size];
+        this.tss = new long[size];
+        this.keyBuffer = new long[size];
+        this.tsBuffer = new long[size];
+    }
 
-        public void reset(int lpid, long ts, Block block) {
-            this.lpid = lpid;
-            this.ts = ts;
-            this.sortTs = (long) (block != null ? block.priorTs() : 0);
+    @Override
+    public WriteBuffer clone() {
+        return new SortWriteBuffer(keys.length);
+    }
+
+    @Override
+    public String key() {
+        return "SortWriteBuffer-" + keys.length;
+    }
+
+    @Override
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public int size() {
+        return index;
+    }
+
+    @Override
+    public void write(GCSimulator sim, int lpid, long ts, Block block) {
+        if (lpidBits == 0) {
+            lpidBits = 32 - Integer.numberOfLeadingZeros(sim.totalPages);
         }
+        long sortTs = (long) (block != null ? block.priorTs() : 0);
+        // the key is sortTs << lpidBits | lpid and must stay non-negative for the radix sort
+        Preconditions.checkState(sortTs >>> (63 - lpidBits) == 0, "The sort timestamp overflows the sort key");
+        keys[index] = (sortTs << lpidBits) | lpid;
+        tss[index] = ts;
+        buffered.set(lpid);
+        index++;
+        if (index == keys.length) {
+            flush(sim);
+        }
+    }
 
-        @Override
-        public int compareTo(Entry o) {
-            int cmp = Long.compare(sortTs, o.sortTs);
-            if (cmp == 0) {
-                return Integer.compare(lpid, o.lpid);
-            } else {
-                return cmp;
+    @Override
+    public void flush(GCSimulator sim) {
+        RadixSort.sort(keys, tss, keyBuffer, tsBuffer, index);
+
+        long lpidMask = (1L << lpidBits) - 1;
+        if (reverse) {
+            for (int i = index - 1; i >= 0; i--) {
+                sim.writeLpidToBlock((int) (keys[i] & lpidMask), tss[i]);
+            }
+        } else {
+            for (int i = 0; i < index; i++) {
+                sim.writeLpidToBlock((int) (keys[i] & lpidMask), tss[i]);
             }
         }
+        reverse = !reverse;
+        BufferedEntries.clear(buffered, keys, index, lpidMask);
+        index = 0;
+    }
+
+    @Override
+    public void discard(IntArrayList lpids) {
+        index = BufferedEntries.discard(buffered, keys, tss, index, (1L << lpidBits) - 1, lpids);
     }
 
-    private final Entry[] entries;
+}
+
+// absorbs overwrites of buffered lpids in place, like an NVRAM write cache, and flushes only the latest versions
+class DedupWriteBuffer implements WriteBuffer {
+
+    private final Int2IntOpenHashMap slots;
+    private final long[] keys;
+    private final long[] tss;
+    private final long[] keyBuffer;
+    private final long[] tsBuffer;
+    private final boolean sort;
+    private int lpidBits = 0;
     private int index = 0;
     private boolean reverse = false;
+    // entries of discarded writes, which are dropped when the buffer is full
+    private int removed = 0;
 
-    public SortWriteBuffer(int size) {
-        this.entries = new Entry[size];
-        for (int i = 0; i < size; i++) {
-            this.entries[i] = new Entry();
-        }
+    long writes;
+    long absorbed;
+
+    public DedupWriteBuffer(int size, boolean sort) {
+        this.slots = new Int2IntOpenHashMap(size);
+        this.slots.defaultReturnValue(-1);
+        this.keys = new long[size];
+        this.tss = new long[size];
+        this.keyBuffer = sort ? new long[size] : null;
+        this.tsBuffer = sort ? new long[size] : null;
+        this.sort = sort;
     }
 
     @Override
     public WriteBuffer clone() {
-        return new SortWriteBuffer(entries.length);
+        return new DedupWriteBuffer(keys.length, sort);
+    }
+
+    @Override
+    public String key() {
+        return "DedupWriteBuffer-" + keys.length + (sort ? "-sorted" : "");
+    }
+
+    @Override
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public int size() {
+        return index - removed;
     }
 
     @Override
     public void write(GCSimulator sim, int lpid, long ts, Block block) {
-        entries[index++].reset(lpid, ts, block);
-        if (index == entries.length) {
-            flush(sim);
+        writes++;
+        int slot = slots.get(lpid);
+        if (slot >= 0) {
+            // the flash copy is unchanged, so only the version needs to be updated
+            tss[slot] = ts;
+            absorbed++;
+            return;
+        }
+        if (lpidBits == 0) {
+            lpidBits = 32 - Integer.numberOfLeadingZeros(sim.totalPages);
+        }
+        long sortTs = sort && block != null ? (long) block.priorTs() : 0;
+        Preconditions.checkState(sortTs >>> (63 - lpidBits) == 0, "The sort timestamp overflows the sort key");
+        keys[index] = (sortTs << lpidBits) | lpid;
+        tss[index] = ts;
+        slots.put(lpid, index);
+        index++;
+        if (index == keys.length) {
+            if (removed > 0) {
+                compact();
+            } else {
+                flush(sim);
+            }
         }
     }
 
     @Override
-    public void flush(GCSimulator sim) {
-        Arrays.sort(entries, 0, index);
+    public void discard(IntArrayList lpids) {
+        for (int i = 0; i < lpids.size(); i++) {
+            int slot = slots.remove(lpids.getInt(i));
+            if (slot >= 0) {
+                keys[slot] = BufferedEntries.REMOVED;
+                removed++;
+            }
+        }
+    }
 
+    private void compact() {
+        index = BufferedEntries.compact(keys, tss, index);
+        removed = 0;
+        long lpidMask = (1L << lpidBits) - 1;
+        slots.clear();
+        for (int i = 0; i < index; i++) {
+            slots.put((int) (keys[i] & lpidMask), i);
+        }
+    }
+
+    @Override
+    public void flush(GCSimulator sim) {
+        if (removed > 0) {
+            compact();
+        }
+        long lpidMask = (1L << lpidBits) - 1;
+        if (sort) {
+            RadixSort.sort(keys, tss, keyBuffer, tsBuffer, index);
+        }
         if (reverse) {
             for (int i = index - 1; i >= 0; i--) {
-                Entry e = entries[i];
-                sim.writeLpidToBlock(e.lpid, e.ts);
+                sim.writeLpidToBlock((int) (keys[i] & lpidMask), tss[i]);
             }
         } else {
             for (int i = 0; i < index; i++) {
-                Entry e = entries[i];
-                sim.writeLpidToBlock(e.lpid, e.ts);
+                sim.writeLpidToBlock((int) (keys[i] & lpidMask), tss[i]);
             }
         }
-        reverse = !reverse;
+        if (sort) {
+            reverse = !reverse;
+        }
+        slots.clear();
         index = 0;
     }
 
-}
\ No newline at end of file
+    @Override
+    public void clearStats() {
+        writes = 0;
+        absorbed = 0;
+    }
+
+    public double absorptionRatio() {
+        return (double) absorbed / Math.max(1, writes);
+    }
+
+}
+
+// classifies the buffered pages into temperature streams at flush time and writes each stream to its own line,
+// which models a multi-stream SSD. Streams are log2 buckets of an estimate of the update interval in writes:
+// with K streams, stream s < K - 1 receives the pages whose interval is less than totalPages * 2^(s + 2 - K), so
+// the coldest stream holds the pages that are not rewritten within one device write. A stream thus receives as
+// many pages as have its temperature, not a fixed share of the batch.
+class MultiStreamWriteBuffer implements WriteBuffer {
+
+    public enum Temperature {
+        // time since the prior writes of the pages in the flash block
+        PRIOR_TS,
+        // time since the page was last written
+        INTERVAL,
+        // inverse of the oracle update probability
+        PROB
+    }
+
+    private final long[] keys;
+    private final long[] tss;
+    private final long[] keyBuffer;
+    private final long[] tsBuffer;
+    private final int streams;
+    private final Temperature temperature;
+    // the last write of each lpid for INTERVAL, allocated on the first write
+    private long[] lastWrites;
+    private final BitSet buffered = new BitSet();
+    private int lpidBits = 0;
+    private int index = 0;
+
+    public MultiStreamWriteBuffer(int size, int streams, Temperature temperature) {
+        Preconditions.checkArgument(streams >= 1);
+        this.keys = new long[size];
+        this.tss = new long[size];
+        this.keyBuffer = new long[size];
+        this.tsBuffer = new long[size];
+        this.streams = streams;
+        this.temperature = temperature;
+    }
+
+    @Override
+    public WriteBuffer clone() {
+        return new MultiStreamWriteBuffer(keys.length, streams, temperature);
+    }
+
+    @Override
+    public String key() {
+        return "MultiStreamWriteBuffer-" + keys.length + "-" + streams + "-" + temperature;
+    }
+
+    @Override
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public int size() {
+        return index;
+    }
+
+    @Override
+    public void write(GCSimulator sim, int lpid, long ts, Block block) {
+        if (lpidBits == 0) {
+            lpidBits = 32 - Integer.numberOfLeadingZeros(sim.totalPages);
+        }
+        long maxInterval = (1L << (63 - lpidBits)) - 1;
+        long interval = Math.max(0, Math.min(interval(sim, lpid, ts, block), maxInterval));
+        keys[index] = (interval << lpidBits) | lpid;
+        tss[index] = ts;
+        buffered.set(lpid);
+        index++;
+        if (index == keys.length) {
+            flush(sim);
+        }
+    }
+
+    private long interval(GCSimulator sim, int lpid, long ts, Block block) {
+        switch (temperature) {
+            case PRIOR_TS:
+                return block != null ? ts - (long) block.priorTs() : Long.MAX_VALUE;
+            case INTERVAL:
+                if (lastWrites == null) {
+                    lastWrites = new long[sim.gen.maxLpid() + 1];
+                    Arrays.fill(lastWrites, -1);
+                }
+                long lastWrite = lastWrites[lpid];
+                lastWrites[lpid] = ts;
+                return lastWrite >= 0 ? ts - lastWrite : Long.MAX_VALUE;
+            case PROB:
+                double prob = sim.gen.getProb(lpid);
+                return prob > 0 ? (long) Math.min(1 / prob, Long.MAX_VALUE) : Long.MAX_VALUE;
+            default:
+                throw new IllegalStateException("Unknown temperature " + temperature);
+        }
+    }
+
+    @Override
+    public void flush(GCSimulator sim) {
+        Preconditions.checkState(sim.blockSelector instanceof StreamBlockSelector,
+                "Multi-stream write buffer requires a stream block selector");
+        StreamBlockSelector selector = (StreamBlockSelector) sim.blockSelector;
+        Preconditions.checkState(selector.streams() >= streams);
+
+        RadixSort.sort(keys, tss, keyBuffer, tsBuffer, index);
+
+        // the pages are sorted by interval, so the streams are written in turn, hottest first
+        long lpidMask = (1L << lpidBits) - 1;
+        int stream = -1;
+        for (int i = 0; i < index; i++) {
+            int pageStream = stream(sim, keys[i] >>> lpidBits);
+            if (pageStream != stream) {
+                stream = pageStream;
+                selector.setStream(stream);
+            }
+            sim.writeLpidToBlock((int) (keys[i] & lpidMask), tss[i]);
+        }
+        BufferedEntries.clear(buffered, keys, index, lpidMask);
+        index = 0;
+    }
+
+    @Override
+    public void discard(IntArrayList lpids) {
+        index = BufferedEntries.discard(buffered, keys, tss, index, (1L << lpidBits) - 1, lpids);
+    }
+
+    private int stream(GCSimulator sim, long interval) {
+        for (int stream = 0; stream < streams - 1; stream++) {
+            int shift = streams - 2 - stream;
+            if (interval < (long) sim.totalPages >> shift) {
+                return stream;
+            }
+        }
+        return streams - 1;
+    }
+
+}
+
+// buffered writes as parallel arrays of keys, whose low bits are the lpid, and timestamps
+final class BufferedEntries {
+    static final long REMOVED = -1;
+
+    private BufferedEntries() {
+    }
+
+    // marks the entries of the given lpids as removed and drops them, and returns the new number of entries. The
+    // filter has the bits of the buffered lpids set, so that most discards do not scan the entries
+    static int discard(BitSet buffered, long[] keys, long[] tss, int count, long lpidMask, IntArrayList lpids) {
+        IntOpenHashSet hits = null;
+        for (int i = 0; i < lpids.size(); i++) {
+            int lpid = lpids.getInt(i);
+            if (buffered.get(lpid)) {
+                if (hits == null) {
+                    hits = new IntOpenHashSet();
+                }
+                hits.add(lpid);
+                buffered.clear(lpid);
+            }
+        }
+        if (hits == null) {
+            return count;
+        }
+        for (int i = 0; i < count; i++) {
+            if (hits.contains((int) (keys[i] & lpidMask))) {
+                keys[i] = REMOVED;
+            }
+        }
+        return compact(keys, tss, count);
+    }
+
+    // drops the removed entries, keeping the order of the others
+    static int compact(long[] keys, long[] tss, int count) {
+        int to = 0;
+        for (int i = 0; i < count; i++) {
+            if (keys[i] != REMOVED) {
+                keys[to] = keys[i];
+                tss[to] = tss[i];
+                to++;
+            }
+        }
+        return to;
+    }
+
+    // clears the filter bits of the entries
+    static void clear(BitSet buffered, long[] keys, int count, long lpidMask) {
+        for (int i = 0; i < count; i++) {
+            buffered.clear((int) (keys[i] & lpidMask));
+        }
+    }
+
+}
+
+// stable LSD radix sort of non-negative keys with a parallel array of values
+final class RadixSort {
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    private RadixSort() {
+    }
+
+    public static void sort(long[] keys, long[] values, long[] keyBuffer, long[] valueBuffer, int n) {
+        if (n <= 1) {
+            return;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, keys[i]);
+            max = Math.max(max, keys[i]);
+        }
+        // only sort the digits that differ across the keys
+        int bits = 64 - Long.numberOfLeadingZeros(max - min);
+        int[] counts = new int[RADIX];
+        long[] srcKeys = keys;
+        long[] srcValues = values;
+        long[] dstKeys = keyBuffer;
+        long[] dstValues = valueBuffer;
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[(int) ((srcKeys[i] - min) >>> shift) & RADIX_MASK]++;
+            }
+            int sum = 0;
+            for (int d = 0; d < RADIX; d++) {
+                int count = counts[d];
+                counts[d] = sum;
+                sum += count;
+            }
+            for (int i = 0; i < n; i++) {
+                int pos = counts[(int) ((srcKeys[i] - min) >>> shift) & RADIX_MASK]++;
+                dstKeys[pos] = srcKeys[i];
+                dstValues[pos] = srcValues[i];
+            }
+            long[] tmp = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmp;
+            tmp = srcValues;
+            srcValues = dstValues;
+            dstValues = tmp;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, n);
+            System.arraycopy(srcValues, 0, values, 0, n);
+        }
+    }
+
+}
@@ -1,5 +1,27 @@
 package simulator;
 
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import simulator.UniformLpidGenerator.UniformLpidGeneratorFactory;
+
 public class BlockSelectorTest {
+    private static final int TOTAL_PAGES = 64 * GCSimulator.BLOCK_SIZE;
+
+    private static GCSimulator create(BlockSelector selector) {
+        Param param = new Param("Test", new UniformLpidGeneratorFactory(), NoWriteBuffer.INSTANCE, selector,
+                new MaxAvail(), null, 1, true);
+        return param.createSimulator(param.genFactory.create(TOTAL_PAGES / 2), TOTAL_PAGES);
+    }
+
+    @Test
+    public void testDecayInitIsIdempotent() {
+        GCSimulator sim = create(new DecayBlockSelector(4, 0.5));
+        assertEquals(4, sim.lines.size());
+        // trace experiments init the selector again once the generator is trained
+        sim.blockSelector.init(sim);
+        assertEquals(4, sim.lines.size());
+    }
 
 }
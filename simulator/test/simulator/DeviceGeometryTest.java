@@ -0,0 +1,60 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import simulator.UniformLpidGenerator.UniformLpidGeneratorFactory;
+
+public class DeviceGeometryTest {
+    private static final int TOTAL_PAGES = 256 * GCSimulator.BLOCK_SIZE;
+
+    private static double throughput(DeviceGeometry geometry) {
+        Param param = new Param("Greedy", new UniformLpidGeneratorFactory(), new SortWriteBuffer(4096),
+                NoBlockSelector.INSTANCE, new MaxAvail(), null, 4, false).withGeometry(geometry);
+        LpidGenerator gen = param.genFactory.create((int) (TOTAL_PAGES * 0.5));
+        GCSimulator sim = param.createSimulator(gen, TOTAL_PAGES);
+        int[] lpids = new int[gen.maxLpid()];
+        for (int i = 0; i < lpids.length; i++) {
+            lpids[i] = i + 1;
+        }
+        sim.load(lpids);
+        // closed-loop writes, which are limited by how fast the dies drain the buffer
+        sim.latency = new LatencyModel(200, 50, 2000, 10, 0, geometry, 0);
+        sim.latency.setBufferCapacity(sim.writeBuffer.capacity());
+        sim.run(TOTAL_PAGES);
+        return sim.latency.throughput();
+    }
+
+    @Test
+    public void testThroughputGrowsWithDies() {
+        double one = throughput(DeviceGeometry.SINGLE_DIE);
+        double two = throughput(new DeviceGeometry(2, 1));
+        double eight = throughput(new DeviceGeometry(4, 2));
+        assertTrue(one + " " + two, two > 1.5 * one);
+        assertTrue(two + " " + eight, eight > 2 * two);
+    }
+
+    @Test
+    public void testOpenBlocksAreStriped() {
+        DeviceGeometry geometry = new DeviceGeometry(2, 2);
+        Param param = new Param("Greedy", new UniformLpidGeneratorFactory(), NoWriteBuffer.INSTANCE,
+                NoBlockSelector.INSTANCE, new MaxAvail(), null, 4, false).withGeometry(geometry);
+        GCSimulator sim = param.createSimulator(param.genFactory.create(1000), TOTAL_PAGES);
+        for (Block[] stripe : sim.userBlocks) {
+            assertEquals(geometry.dies, stripe.length);
+            for (int die = 0; die < stripe.length; die++) {
+                assertEquals(die, geometry.die(stripe[die].blockIndex));
+            }
+        }
+        // consecutive pages go to consecutive dies
+        for (int lpid = 1; lpid <= 4; lpid++) {
+            sim.write(lpid);
+        }
+        for (Block block : sim.userBlocks.get(0)) {
+            assertEquals(1, block.count);
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+public class FileMapperTest {
+    private static final int NUM_LPIDS = 20000;
+    private static final int FILES = 50;
+    private static final int PAGES = 2000;
+
+    private static long key(int file, int page) {
+        return ((long) file << 32) | page;
+    }
+
+    private static int file(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int page(long key) {
+        return (int) key;
+    }
+
+    // runs random writes, trims and deletes against a map of (file, page) -> lpid
+    private static void checkAgainstModel(FileMapper mapper, long seed) {
+        Random random = new Random(seed);
+        Map<Long, Integer> pages = new HashMap<>();
+        Set<Integer> used = new HashSet<>();
+        int[] nextPages = new int[FILES];
+        IntArrayList lpids = new IntArrayList();
+        for (int i = 0; i < 50000; i++) {
+            int file = random.nextInt(FILES);
+            int op = random.nextInt(100);
+            lpids.clear();
+            Set<Integer> expected = new HashSet<>();
+            if (op < 1 || pages.size() == NUM_LPIDS - 1) {
+                for (Iterator<Map.Entry<Long, Integer>> it = pages.entrySet().iterator(); it.hasNext();) {
+                    Map.Entry<Long, Integer> entry = it.next();
+                    if (file(entry.getKey()) == file) {
+                        expected.add(entry.getValue());
+                        it.remove();
+                    }
+                }
+                mapper.delete(file, lpids);
+                nextPages[file] = 0;
+            } else if (op < 5) {
+                int page = random.nextInt(PAGES);
+                // short trims probe the pages and long ones walk the file
+                int length = 1 + random.nextInt(random.nextBoolean() ? 8 : 500);
+                for (int p = page; p < page + length; p++) {
+                    Integer lpid = pages.remove(key(file, p));
+                    if (lpid != null) {
+                        expected.add(lpid);
+                    }
+                }
+                mapper.trim(file, page, length, lpids);
+            } else {
+                // mostly sequential writes, which form extents
+                int page = op < 70 ? nextPages[file]++ % PAGES : random.nextInt(PAGES);
+                int lpid = mapper.write(file, page);
+                Integer old = pages.get(key(file, page));
+                if (old != null) {
+                    assertEquals((int) old, lpid);
+                } else {
+                    assertTrue(lpid >= 1 && lpid < NUM_LPIDS);
+                    assertTrue("lpid " + lpid + " is in use", used.add(lpid));
+                    pages.put(key(file, page), lpid);
+                }
+            }
+            assertEquals(expected.size(), lpids.size());
+            for (int j = 0; j < lpids.size(); j++) {
+                assertTrue(expected.contains(lpids.getInt(j)));
+                used.remove(lpids.getInt(j));
+            }
+            // lpid 0 is never used
+            assertEquals(pages.size() + 1, mapper.getUsedLpids());
+        }
+        Set<Integer> files = new HashSet<>();
+        for (long key : pages.keySet()) {
+            files.add(file(key));
+            assertEquals(pages.get(key).intValue(), mapper.write(file(key), page(key)));
+        }
+        assertEquals(files.size(), mapper.getFiles());
+    }
+
+    @Test
+    public void testHashFileMapper() {
+        checkAgainstModel(new HashFileMapper(NUM_LPIDS), 0);
+    }
+
+    @Test
+    public void testFlatFileMapper() {
+        for (long seed = 0; seed < 2; seed++) {
+            checkAgainstModel(new FlatFileMapper(NUM_LPIDS), seed);
+        }
+    }
+
+    @Test
+    public void testFlatFileMapperGrows() {
+        FlatFileMapper mapper = new FlatFileMapper(1 << 20);
+        // enough pages for several incremental resizes
+        for (int page = 0; page < 300000; page++) {
+            assertEquals(page + 1, mapper.write(page % 3, page));
+        }
+        for (int page = 0; page < 300000; page++) {
+            assertEquals(page + 1, mapper.write(page % 3, page));
+        }
+        IntArrayList lpids = new IntArrayList();
+        mapper.delete(1, lpids);
+        assertEquals(100000, lpids.size());
+        assertEquals(2, mapper.getFiles());
+        assertEquals(200001, mapper.getUsedLpids());
+    }
+
+    @Test
+    public void testExtentFileMapper() {
+        for (long seed = 0; seed < 2; seed++) {
+            checkAgainstModel(new ExtentFileMapper(NUM_LPIDS), seed);
+        }
+    }
+
+    @Test
+    public void testExtentsGrowSplitAndCoalesce() {
+        ExtentFileMapper mapper = new ExtentFileMapper(1001);
+        // a new extent starts in the middle of the free lpids, and sequential pages follow it
+        int start = mapper.write(7, 0);
+        assertEquals(500, start);
+        for (int page = 1; page < 100; page++) {
+            assertEquals(start + page, mapper.write(7, page));
+        }
+        assertEquals(1, mapper.getExtents());
+
+        // trimming the middle leaves the head and the tail
+        IntArrayList lpids = new IntArrayList();
+        mapper.trim(7, 40, 20, lpids);
+        assertEquals(20, lpids.size());
+        assertEquals(start + 40, lpids.getInt(0));
+        assertEquals(2, mapper.getExtents());
+        assertEquals(start + 60, mapper.write(7, 60));
+        assertEquals(81, mapper.getUsedLpids());
+
+        // released lpids coalesce into one free range again
+        lpids.clear();
+        mapper.delete(7, lpids);
+        assertEquals(80, lpids.size());
+        assertEquals(0, mapper.getExtents());
+        assertEquals(0, mapper.getFiles());
+        assertEquals(start, mapper.write(8, 0));
+    }
+
+}
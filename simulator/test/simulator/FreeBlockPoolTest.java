@@ -0,0 +1,123 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class FreeBlockPoolTest {
+
+    private static Block[] blocks(int count) {
+        BlockArrays arrays = new BlockArrays(count);
+        Block[] blocks = new Block[count];
+        for (int i = 0; i < count; i++) {
+            blocks[i] = new Block(i, GCSimulator.BLOCK_SIZE, arrays);
+        }
+        return blocks;
+    }
+
+    private static List<Integer> indexes(FreeBlockPool pool) {
+        List<Integer> indexes = new ArrayList<>();
+        pool.forEach(block -> indexes.add(block.blockIndex));
+        return indexes;
+    }
+
+    @Test
+    public void testFifo() {
+        Block[] blocks = blocks(4);
+        FreeBlockPool pool = new FifoFreeBlockPool();
+        pool.add(blocks[1]);
+        pool.add(blocks[2]);
+        // released unused, so it is reused first
+        pool.addFirst(blocks[3]);
+        pool.add(blocks[0]);
+        assertEquals(4, pool.size());
+        List<Integer> visited = indexes(pool);
+        List<Integer> polled = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            polled.add(pool.poll(i % 2 == 0).blockIndex);
+        }
+        assertEquals(visited, polled);
+        assertEquals(Arrays.asList(3, 1, 2, 0), polled);
+        assertEquals(0, pool.size());
+        assertNull(pool.poll(true));
+    }
+
+    @Test
+    public void testStriped() {
+        DeviceGeometry geometry = new DeviceGeometry(2, 2);
+        Block[] blocks = blocks(12);
+        FreeBlockPool pool = new StripedFreeBlockPool(geometry, FifoFreeBlockPool::new);
+        for (Block block : blocks) {
+            pool.add(block);
+        }
+        assertEquals(12, pool.size());
+
+        // a block of the requested die, in FIFO order within the die
+        assertEquals(2, pool.poll(true, 2).blockIndex);
+        assertEquals(6, pool.poll(false, 2).blockIndex);
+        assertEquals(10, pool.poll(true, 2).blockIndex);
+        assertEquals(9, pool.size());
+        // die 2 is empty, so the dies are taken in turn
+        assertEquals(0, pool.poll(true, 2).blockIndex);
+        List<Integer> polled = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            polled.add(pool.poll(i % 2 == 0).blockIndex);
+        }
+        assertEquals(Arrays.asList(1, 3, 4, 5, 7, 8, 9, 11), polled);
+        assertEquals(0, pool.size());
+        assertNull(pool.poll(true));
+        assertNull(pool.poll(true, 1));
+
+        // blocks go back to the pools of their dies
+        pool.add(blocks[6]);
+        pool.add(blocks[1]);
+        pool.addFirst(blocks[2]);
+        assertEquals(3, pool.size());
+        assertEquals(Arrays.asList(1, 2, 6), indexes(pool));
+        assertEquals(2, pool.poll(true, 2).blockIndex);
+    }
+
+    @Test
+    public void testWearAware() {
+        Block[] blocks = blocks(6);
+        int[] eraseCounts = { 5, 1, 9, 1, 3, 9 };
+        FreeBlockPool pool = new WearAwareFreeBlockPool();
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i].eraseCount = eraseCounts[i];
+            pool.add(blocks[i]);
+        }
+        assertEquals(Arrays.asList(1, 3, 4, 0, 2, 5), indexes(pool));
+        // hot data takes the least-worn blocks and cold data the most-worn, and ties go to the lower index
+        assertEquals(1, pool.poll(true).blockIndex);
+        assertEquals(5, pool.poll(false).blockIndex);
+        assertEquals(3, pool.poll(true).blockIndex);
+        assertEquals(2, pool.poll(false).blockIndex);
+        // released unused, the block keeps its position
+        pool.addFirst(blocks[1]);
+        assertEquals(1, pool.poll(true).blockIndex);
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testStripedWearAware() {
+        DeviceGeometry geometry = new DeviceGeometry(2, 1);
+        Block[] blocks = blocks(6);
+        FreeBlockPool pool = new StripedFreeBlockPool(geometry, WearAwareFreeBlockPool::new);
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i].eraseCount = 10 - i;
+            pool.add(blocks[i]);
+        }
+        // each die orders its own blocks by wear
+        assertEquals(4, pool.poll(true, 0).blockIndex);
+        assertEquals(0, pool.poll(false, 0).blockIndex);
+        assertEquals(5, pool.poll(true, 1).blockIndex);
+        assertEquals(1, pool.poll(false, 1).blockIndex);
+        assertEquals(2, pool.size());
+    }
+
+}
@@ -0,0 +1,61 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GCEventLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File file = folder.newFile();
+        // a small ring, so that the simulator wraps around and waits for the writer
+        int events = 10000;
+        try (GCEventLog log = new GCEventLog(file, 16)) {
+            for (int i = 0; i < events; i++) {
+                if (i % 3 == 0) {
+                    log.beginBatch();
+                }
+                log.victim(i * 7L, i, i % 5, i % GCSimulator.BLOCK_SIZE, i * 3L, 1L << (i % GCEventLog.MAX_LINES));
+            }
+            assertEquals(events, log.events());
+        }
+        assertEquals(GCEventLog.HEADER_BYTES + (long) events * GCEventLog.RECORD_BYTES, file.length());
+
+        GCEvent event = new GCEvent();
+        try (GCEventReader reader = new GCEventReader(file.getPath())) {
+            for (int i = 0; i < events; i++) {
+                assertTrue(reader.read(event));
+                assertEquals(i * 7L, event.ts);
+                assertEquals(i * 3L, event.age);
+                assertEquals(i / 3 + 1, event.batch);
+                assertEquals(i, event.block);
+                assertEquals(i % 5, event.line);
+                assertEquals(i % GCSimulator.BLOCK_SIZE, event.valid);
+                assertEquals(1L << (i % GCEventLog.MAX_LINES), event.destLines);
+            }
+            assertFalse(reader.read(event));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        File file = folder.newFile();
+        new GCEventLog(file).close();
+        assertEquals(GCEventLog.HEADER_BYTES, file.length());
+        try (GCEventReader reader = new GCEventReader(file.getPath())) {
+            assertFalse(reader.read(new GCEvent()));
+        }
+    }
+
+}
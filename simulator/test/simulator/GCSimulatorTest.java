@@ -0,0 +1,102 @@
+package simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import simulator.UniformLpidGenerator.UniformLpidGeneratorFactory;
+
+public class GCSimulatorTest {
+    private static final int TOTAL_PAGES = 128 * GCSimulator.BLOCK_SIZE;
+
+    // the same scores, but selected by scanning all blocks
+    private static class ScannedMaxAvail extends MaxAvail {
+        @Override
+        public boolean isTimeInvariant() {
+            return false;
+        }
+    }
+
+    private static GCSimulator createLoaded(ScoreComputer scoreComputer) {
+        Param param = new Param("Greedy", new UniformLpidGeneratorFactory(), NoWriteBuffer.INSTANCE,
+                NoBlockSelector.INSTANCE, scoreComputer, null, 4, false);
+        LpidGenerator gen = param.genFactory.create((int) (TOTAL_PAGES * 0.8));
+        gen.reseed(0);
+        GCSimulator sim = param.createSimulator(gen, TOTAL_PAGES);
+        int[] lpids = new int[gen.maxLpid()];
+        for (int i = 0; i < lpids.length; i++) {
+            lpids[i] = i + 1;
+        }
+        sim.load(lpids);
+        return sim;
+    }
+
+    private static void assertSameBlocks(GCSimulator expected, GCSimulator actual) {
+        for (int i = 0; i < expected.totalBlocks; i++) {
+            Block e = expected.blocks[i];
+            Block a = actual.blocks[i];
+            assertEquals(e.state, a.state);
+            assertEquals(e.count, a.count);
+            assertEquals(e.avail, a.avail);
+            assertEquals(e.eraseCount, a.eraseCount);
+            assertArrayEquals(Arrays.copyOf(e.lpids, e.count), Arrays.copyOf(a.lpids, a.count));
+        }
+    }
+
+    @Test
+    public void testHeapAndScanSelectSameVictims() {
+        GCSimulator heap = createLoaded(new MaxAvail());
+        GCSimulator scan = createLoaded(new ScannedMaxAvail());
+        heap.run(4 * TOTAL_PAGES);
+        scan.run(4 * TOTAL_PAGES);
+        assertTrue(heap.movedPages > 0);
+        assertEquals(heap.movedPages, scan.movedPages);
+        assertSameBlocks(heap, scan);
+    }
+
+    @Test
+    public void testForksAreIsolated() {
+        GCSimulator parent = createLoaded(new MaxAvail());
+        Param param = new Param("Greedy", new UniformLpidGeneratorFactory(), NoWriteBuffer.INSTANCE,
+                NoBlockSelector.INSTANCE, new MaxAvail(), null, 4, false);
+        GCSimulator first = parent.fork(param);
+        GCSimulator second = parent.fork(param);
+        // a simulator that shares nothing with the parent
+        GCSimulator copy = createLoaded(new MaxAvail()).fork(param);
+        long[] addrs = new long[parent.maxLpid + 1];
+        for (int lpid = 1; lpid <= parent.maxLpid; lpid++) {
+            addrs[lpid] = parent.mappingTable.get(lpid);
+        }
+
+        first.gen.reseed(1);
+        first.run(2 * TOTAL_PAGES);
+        second.gen.reseed(1);
+        second.run(2 * TOTAL_PAGES);
+        copy.gen.reseed(1);
+        copy.run(2 * TOTAL_PAGES);
+        assertTrue(first.movedPages > 0);
+        assertEquals(copy.movedPages, first.movedPages);
+        assertEquals(copy.movedPages, second.movedPages);
+        assertSameBlocks(copy, first);
+        assertSameBlocks(copy, second);
+
+        // the children did not write through to the parent
+        assertEquals(0, parent.movedPages);
+        for (int lpid = 1; lpid <= parent.maxLpid; lpid++) {
+            assertEquals(addrs[lpid], parent.mappingTable.get(lpid));
+        }
+        for (Block block : parent.blocks) {
+            for (int i = 0; i < block.count; i++) {
+                int lpid = block.lpids[i];
+                if (lpid >= 0) {
+                    assertEquals(block.blockIndex, parent.mappingTable.get(lpid) >> 32);
+                }
+            }
+        }
+    }
+
+}
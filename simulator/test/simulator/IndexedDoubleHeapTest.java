@@ -0,0 +1,72 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class IndexedDoubleHeapTest {
+
+    @Test
+    public void testTiesGoToLowerId() {
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(4);
+        heap.put(3, 1.0);
+        heap.put(1, 1.0);
+        heap.put(2, 1.0);
+        heap.put(0, 0.5);
+        assertEquals(1, heap.top());
+        heap.remove(1);
+        assertEquals(2, heap.top());
+        heap.put(0, 1.0);
+        assertEquals(0, heap.top());
+    }
+
+    @Test
+    public void testMatchesOrderedSet() {
+        Random random = new Random(0);
+        int ids = 1000;
+        double[] keys = new double[ids];
+        // ordered by descending key and then ascending id, like the heap
+        TreeSet<Integer> expected = new TreeSet<>((id1, id2) -> {
+            int cmp = Double.compare(keys[id2], keys[id1]);
+            return cmp != 0 ? cmp : Integer.compare(id1, id2);
+        });
+        // a small initial capacity, so that the heap grows
+        IndexedDoubleHeap heap = new IndexedDoubleHeap(16);
+        for (int i = 0; i < 100000; i++) {
+            int id = random.nextInt(ids);
+            switch (random.nextInt(3)) {
+                case 0:
+                    heap.remove(id);
+                    expected.remove(id);
+                    assertFalse(heap.contains(id));
+                    break;
+                default:
+                    // few distinct keys, so that there are many ties
+                    double key = random.nextInt(20);
+                    expected.remove(id);
+                    keys[id] = key;
+                    expected.add(id);
+                    heap.put(id, key);
+                    assertTrue(heap.contains(id));
+                    assertEquals(key, heap.key(id), 0);
+            }
+            assertEquals(expected.size(), heap.size());
+            if (!expected.isEmpty()) {
+                assertEquals((int) expected.first(), heap.top());
+                assertEquals(keys[expected.first()], heap.topKey(), 0);
+            }
+        }
+        while (!heap.isEmpty()) {
+            int top = heap.top();
+            assertEquals((int) expected.pollFirst(), top);
+            heap.remove(top);
+        }
+        assertTrue(expected.isEmpty());
+    }
+
+}
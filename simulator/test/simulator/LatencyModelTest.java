@@ -0,0 +1,82 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyModelTest {
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value : new long[] { 0, 1, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE / 2 }) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.lowerBound(index) <= value);
+            assertTrue(value < LatencyHistogram.lowerBound(index + 1));
+        }
+    }
+
+    @Test
+    public void testHistogramPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.total());
+        assertEquals(1000 * 1000, histogram.max());
+        // buckets have a relative error of 1/32
+        assertEquals(500 * 1000, histogram.percentile(0.5), 500 * 1000 / 32.0);
+        assertEquals(990 * 1000, histogram.percentile(0.99), 990 * 1000 / 32.0);
+        assertEquals(1000 * 1000, histogram.percentile(1));
+    }
+
+    @Test
+    public void testSynchronousWrite() {
+        LatencyModel model = new LatencyModel(200, 50, 2000, 0, 0, DeviceGeometry.SINGLE_DIE, 0);
+        model.arrive();
+        model.program(0);
+        model.complete();
+        assertEquals(200 * 1000, model.histogram.max());
+    }
+
+    @Test
+    public void testBufferedWriteWaitsOnlyWhenFull() {
+        LatencyModel model = new LatencyModel(200, 50, 2000, 0, 0, DeviceGeometry.SINGLE_DIE, 0);
+        model.setBufferCapacity(2);
+        // the first write is buffered, and the second fills the buffer and flushes both
+        model.arrive();
+        model.admit(0);
+        model.complete();
+        model.arrive();
+        model.admit(1);
+        model.program(0);
+        model.program(0);
+        model.complete();
+        assertEquals(0, model.histogram.max());
+        // both slots hold pages being programmed, so the next write waits for the first program
+        model.arrive();
+        model.admit(0);
+        model.complete();
+        assertEquals(200 * 1000, model.histogram.max());
+        assertEquals(3, model.histogram.total());
+    }
+
+    @Test
+    public void testChannelContention() {
+        // two dies on one channel wait for each other's transfers, and dies on two channels do not
+        LatencyModel shared = new LatencyModel(200, 50, 2000, 10, 0, new DeviceGeometry(1, 2), 0);
+        shared.arrive();
+        shared.program(0);
+        shared.program(1);
+        shared.complete();
+        assertEquals(220 * 1000, shared.histogram.max());
+
+        LatencyModel separate = new LatencyModel(200, 50, 2000, 10, 0, new DeviceGeometry(2, 1), 0);
+        separate.arrive();
+        separate.program(0);
+        separate.program(1);
+        separate.complete();
+        assertEquals(210 * 1000, separate.histogram.max());
+    }
+
+}
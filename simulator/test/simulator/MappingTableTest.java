@@ -0,0 +1,56 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MappingTableTest {
+    // spans several chunks, with a partial last chunk
+    private static final int SIZE = 3 * 4096 + 100;
+
+    @Test
+    public void testUnmapped() {
+        MappingTable table = new MappingTable(SIZE);
+        for (int lpid = 0; lpid < SIZE; lpid++) {
+            assertEquals(-1, table.get(lpid));
+        }
+    }
+
+    @Test
+    public void testForkIsCopyOnWrite() {
+        MappingTable parent = new MappingTable(SIZE);
+        for (int lpid = 0; lpid < SIZE; lpid++) {
+            parent.set(lpid, lpid);
+        }
+        MappingTable child = parent.fork();
+        MappingTable sibling = parent.fork();
+        for (int lpid = 0; lpid < SIZE; lpid++) {
+            assertEquals(lpid, child.get(lpid));
+        }
+
+        // writes of either side after the fork are private
+        child.set(1, 100);
+        child.set(SIZE - 1, 200);
+        parent.set(5000, 300);
+        sibling.set(1, 400);
+        assertEquals(100, child.get(1));
+        assertEquals(200, child.get(SIZE - 1));
+        assertEquals(5000, child.get(5000));
+        assertEquals(1, parent.get(1));
+        assertEquals(SIZE - 1, parent.get(SIZE - 1));
+        assertEquals(300, parent.get(5000));
+        assertEquals(400, sibling.get(1));
+        assertEquals(5000, sibling.get(5000));
+        assertEquals(SIZE - 1, sibling.get(SIZE - 1));
+
+        // a fork of a fork
+        MappingTable grandchild = child.fork();
+        grandchild.set(2, 500);
+        child.set(3, 600);
+        assertEquals(2, child.get(2));
+        assertEquals(3, grandchild.get(3));
+        assertEquals(100, grandchild.get(1));
+        assertEquals(2, parent.get(2));
+    }
+
+}
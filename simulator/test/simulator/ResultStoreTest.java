@@ -0,0 +1,91 @@
+package simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResultStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Result result(double fillFactor) {
+        return new Result(fillFactor, 0.99, "4.000", "1.000", "0.500", "0.010", new double[] { 1.5, 0.25 },
+                "util:0,3,12;age:0,0,5;line:20");
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File file = folder.newFile();
+        ResultStore store = new ResultStore(file);
+        store.append("a", result(0.8));
+        store.append("b", result(0.9));
+
+        ResultStore loaded = new ResultStore(file);
+        Result a = loaded.get("a");
+        assertNotNull(a);
+        assertEquals(0.8, a.fillFactor, 0);
+        assertEquals(0.99, a.skew, 0);
+        assertEquals("4.000", a.writeCost);
+        assertEquals("1.000", a.gcCost);
+        assertEquals("0.500", a.E);
+        assertEquals("0.010", a.gcCostError);
+        assertArrayEquals(new double[] { 1.5, 0.25 }, a.gcCostSeries, 1e-9);
+        assertEquals("util:0,3,12;age:0,0,5;line:20", a.victimHistograms);
+        assertEquals(0.9, loaded.get("b").fillFactor, 0);
+    }
+
+    @Test
+    public void testTruncatedRecord() throws IOException {
+        File file = folder.newFile();
+        ResultStore store = new ResultStore(file);
+        store.append("a", result(0.8));
+        long length = file.length();
+        store.append("b", result(0.9));
+        // cut the second record inside its histogram column, where it still has all of its columns
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        int cut = content.indexOf("line:20", (int) length) + "line:2".length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(cut);
+        }
+
+        ResultStore loaded = new ResultStore(file);
+        assertNotNull(loaded.get("a"));
+        assertNull(loaded.get("b"));
+
+        // the rerun cell is appended after the cut off line and is loaded again
+        loaded.append("b", result(0.9));
+        ResultStore reloaded = new ResultStore(file);
+        assertNotNull(reloaded.get("a"));
+        assertEquals(0.9, reloaded.get("b").fillFactor, 0);
+    }
+
+    @Test
+    public void testCorruptedRecord() {
+        assertNull(ResultStore.parse("a\t0.8\t0.99\t0.5\t4.0\t1.0\t0.01\t1.5,0.2x\tutil:;age:;line:\t0"));
+        assertNull(ResultStore.parse("a\t0.8"));
+        assertNull(ResultStore.parse(""));
+    }
+
+    @Test
+    public void testVictimHistograms() {
+        VictimHistograms histograms = VictimHistograms.parse("util:0,3,12;age:0,0,5;line:20");
+        assertEquals(12, histograms.utilization[2]);
+        assertEquals(5, histograms.age[2]);
+        assertEquals(20, histograms.lines[0]);
+        assertEquals("util:0,3,12;age:0,0,5;line:20", histograms.toString());
+        assertEquals("util:;age:;line:", VictimHistograms.parse("util:;age:;line:").toString());
+    }
+
+}
@@ -0,0 +1,77 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import simulator.ZipfLpidGenerator.ZipfLpidGeneratorFactory;
+
+public class SpatialSamplerTest {
+
+    private static SampledLpidGenerator create() {
+        return new SampledLpidGenerator(new ZipfLpidGeneratorFactory(0.99).create(5000), new SpatialSampler(0.2));
+    }
+
+    @Test
+    public void testSampleRate() {
+        SpatialSampler sampler = new SpatialSampler(0.1, 3);
+        int sampled = 0;
+        for (int lpid = 1; lpid <= 100000; lpid++) {
+            if (sampler.sample(lpid)) {
+                sampled++;
+            }
+        }
+        assertEquals(10000, sampled, 500);
+    }
+
+    @Test
+    public void testAliasTableMatchesDistribution() {
+        SampledLpidGenerator gen = create();
+        gen.reseed(0);
+        int n = gen.maxLpid();
+        double total = 0;
+        for (int lpid = 1; lpid <= n; lpid++) {
+            total += gen.getProb(lpid);
+        }
+        assertEquals(1, total, 1e-9);
+
+        int draws = 2000000;
+        int[] counts = new int[n + 1];
+        for (int i = 0; i < draws; i++) {
+            int lpid = gen.generate();
+            assertTrue(lpid >= 1 && lpid <= n);
+            counts[lpid]++;
+        }
+        // total variation distance between the drawn and the renormalized distribution
+        double distance = 0;
+        for (int lpid = 1; lpid <= n; lpid++) {
+            distance += Math.abs((double) counts[lpid] / draws - gen.getProb(lpid));
+        }
+        assertTrue(String.valueOf(distance), distance / 2 < 0.02);
+        // the hottest lpids are drawn accurately
+        for (int lpid = 1; lpid <= 10; lpid++) {
+            double expected = gen.getProb(lpid) * draws;
+            assertEquals(expected, counts[lpid], 5 * Math.sqrt(expected));
+        }
+    }
+
+    @Test
+    public void testForkHasOwnRandomState() {
+        SampledLpidGenerator gen = create();
+        LpidGenerator fork = gen.fork();
+        gen.reseed(1);
+        fork.reseed(1);
+        int[] expected = new int[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = gen.generate();
+        }
+        // draws from the parent do not advance the fork
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], fork.generate());
+        }
+        assertEquals(gen.maxLpid(), fork.maxLpid());
+        assertEquals(gen.getProb(1), fork.getProb(1), 0);
+    }
+
+}
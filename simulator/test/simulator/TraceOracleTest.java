@@ -0,0 +1,138 @@
+package simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+public class TraceOracleTest {
+    private static final int NUM_LPIDS = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<TraceOperation> generate(Random random, int count) {
+        List<TraceOperation> ops = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TraceOperation op = new TraceOperation();
+            int kind = random.nextInt(100);
+            op.op = kind < 2 ? TraceReader.DELETE : kind < 6 ? TraceReader.TRIM : TraceReader.WRITE;
+            op.file = random.nextInt(10);
+            op.page = random.nextInt(50);
+            op.length = 1 + random.nextInt(10);
+            ops.add(op);
+        }
+        return ops;
+    }
+
+    private File write(List<TraceOperation> ops) throws IOException {
+        File file = folder.newFile();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (TraceOperation op : ops) {
+                output.writeByte(op.op);
+                writeVInt(output, op.file);
+                if (op.op != TraceReader.DELETE) {
+                    writeVInt(output, op.page);
+                }
+                if (op.op == TraceReader.TRIM) {
+                    writeVInt(output, op.length);
+                }
+            }
+        }
+        return file;
+    }
+
+    // the encoding read by VarLenDataInput
+    private static void writeVInt(DataOutputStream output, int i) throws IOException {
+        while ((i & ~0x7F) != 0) {
+            output.writeByte((i & 0x7F) | 0x80);
+            i >>>= 7;
+        }
+        output.writeByte(i);
+    }
+
+    @Test
+    public void testRemainingWrites() throws Exception {
+        Random random = new Random(0);
+        List<TraceOperation> load = generate(random, 2000);
+        List<TraceOperation> run = generate(random, 3000);
+        List<TraceOperation> ops = new ArrayList<>(load);
+        ops.addAll(run);
+        int window = 64;
+
+        // the lpid of each write or the lpids released by each operation, and the writes before it
+        FileMapper mapper = new HashFileMapper(NUM_LPIDS);
+        List<IntArrayList> lpids = new ArrayList<>();
+        int[] writesBefore = new int[ops.size()];
+        int writes = 0;
+        for (int i = 0; i < ops.size(); i++) {
+            TraceOperation op = ops.get(i);
+            IntArrayList opLpids = new IntArrayList();
+            writesBefore[i] = writes;
+            if (op.op == TraceReader.WRITE) {
+                opLpids.add(mapper.write(op.file, op.page));
+                writes++;
+            } else if (op.op == TraceReader.DELETE) {
+                mapper.delete(op.file, opLpids);
+            } else {
+                mapper.trim(op.file, op.page, op.length, opLpids);
+            }
+            lpids.add(opLpids);
+        }
+        // the write at which the lpid of each write dies, found backwards
+        long[] expected = new long[writes];
+        int[] nextDeaths = new int[NUM_LPIDS];
+        Arrays.fill(nextDeaths, -1);
+        for (int i = ops.size() - 1; i >= 0; i--) {
+            IntArrayList opLpids = lpids.get(i);
+            for (int j = 0; j < opLpids.size(); j++) {
+                int lpid = opLpids.getInt(j);
+                if (ops.get(i).op == TraceReader.WRITE) {
+                    int p = writesBefore[i];
+                    int q = nextDeaths[lpid];
+                    // deaths are known within the window and rounded down to 2^DEATH_SHIFT writes
+                    expected[p] = q < 0 || q - p >= window ? Long.MAX_VALUE
+                            : Math.max(0, (q >>> TraceOracle.DEATH_SHIFT << TraceOracle.DEATH_SHIFT) - (p + 1));
+                }
+                nextDeaths[lpid] = writesBefore[i];
+            }
+        }
+
+        String[] paths = { write(load).getPath(), write(run).getPath() };
+        TraceOracle oracle = new TraceOracle(paths, new HashFileMapper(NUM_LPIDS), null, window, NUM_LPIDS);
+        FileMapper replay = new HashFileMapper(NUM_LPIDS);
+        IntArrayList released = new IntArrayList();
+        int p = 0;
+        for (TraceOperation op : ops) {
+            if (op.op == TraceReader.WRITE) {
+                int lpid = replay.write(op.file, op.page);
+                oracle.advance(lpid);
+                assertEquals("write " + p, expected[p], oracle.remaining(lpid));
+                p++;
+            } else if (op.op == TraceReader.DELETE) {
+                replay.delete(op.file, released);
+            } else {
+                replay.trim(op.file, op.page, op.length, released);
+            }
+        }
+        assertEquals(writes, oracle.position());
+        long known = Arrays.stream(expected).filter(remaining -> remaining != Long.MAX_VALUE).count();
+        assertTrue(known + "/" + writes, known > writes / 20 && known < writes);
+        oracle.close();
+    }
+
+}
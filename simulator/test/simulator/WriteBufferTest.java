@@ -0,0 +1,64 @@
+package simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import simulator.UniformLpidGenerator.UniformLpidGeneratorFactory;
+
+public class WriteBufferTest {
+
+    @Test
+    public void testRadixSort() {
+        Random random = new Random(0);
+        for (int n : new int[] { 0, 1, 2, 100, 10000 }) {
+            for (long range : new long[] { 1, 1000, 1L << 40, Long.MAX_VALUE - 12345 }) {
+                long[] keys = new long[n];
+                long[] values = new long[n];
+                for (int i = 0; i < n; i++) {
+                    // an offset, so that only the digits differing across the keys are sorted
+                    keys[i] = 12345 + (random.nextLong() & Long.MAX_VALUE) % range;
+                    values[i] = i;
+                }
+                long[] expected = keys.clone();
+                Arrays.sort(expected);
+                long[] original = keys.clone();
+                RadixSort.sort(keys, values, new long[n], new long[n], n);
+                assertArrayEquals(expected, keys);
+                for (int i = 0; i < n; i++) {
+                    // values move with their keys, and equal keys keep their order
+                    assertEquals(keys[i], original[(int) values[i]]);
+                    if (i > 0 && keys[i] == keys[i - 1]) {
+                        assertTrue(values[i] > values[i - 1]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRadixSortPrefix() {
+        long[] keys = { 5, 3, 9, 1 };
+        long[] values = { 0, 1, 2, 3 };
+        RadixSort.sort(keys, values, new long[4], new long[4], 3);
+        assertArrayEquals(new long[] { 3, 5, 9, 1 }, keys);
+        assertArrayEquals(new long[] { 1, 0, 2, 3 }, values);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSortKeyOverflow() {
+        Param param = new Param("Greedy", new UniformLpidGeneratorFactory(), NoWriteBuffer.INSTANCE,
+                NoBlockSelector.INSTANCE, new MaxAvail(), null, 1, false);
+        GCSimulator sim = param.createSimulator(param.genFactory.create(1000), 16 * GCSimulator.BLOCK_SIZE);
+        Block block = sim.blocks[0];
+        block.count = 1;
+        block.priorTsSum = Math.pow(2, 60);
+        new SortWriteBuffer(16).write(sim, 1, 0, block);
+    }
+
+}